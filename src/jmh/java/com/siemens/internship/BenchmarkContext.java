@@ -0,0 +1,50 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Starts the application without a web server on its in-memory H2 database, seeded with the given number of items.
+// JMH runs every trial in a fresh fork, so each trial gets its own database.
+final class BenchmarkContext {
+
+    private static final int SEED_CHUNK_SIZE = 5_000;
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(int itemCount, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InternshipApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "item.processing.simulated-work-ms=0",
+                        "item.processing.jobs.resume-on-startup=false")
+                .properties(properties)
+                .run();
+        seed(context.getBean(ItemBatchProcessor.class), itemCount);
+        return context;
+    }
+
+    private static void seed(ItemBatchProcessor batchProcessor, int itemCount) {
+        List<Item> chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+        for (int i = 0; i < itemCount; i++) {
+            chunk.add(item(i));
+            if (chunk.size() == SEED_CHUNK_SIZE) {
+                batchProcessor.importChunk(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            batchProcessor.importChunk(chunk);
+        }
+    }
+
+    static Item item(int i) {
+        return new Item(null, "Item " + i, "Benchmark item " + i, "NEW", "item" + i + "@bench.com");
+    }
+}
@@ -0,0 +1,82 @@
+package com.siemens.internship;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Query latency of the full-text index on synthetic items whose words follow a Zipf-like distribution
+// (a few very common words, a long tail of rare ones), like real names and descriptions.
+// Run with -Xmx4g or more for a million items.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class InvertedIndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+
+    @Param({"100000", "1000000"})
+    private int itemCount;
+
+    private InvertedIndex index;
+    private final Random random = new Random(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new InvertedIndex();
+        Random words = new Random(7);
+        for (long id = 1; id <= itemCount; id++) {
+            index.put(id, text(words, 3), text(words, 12));
+        }
+    }
+
+    // One word from the long tail
+    @Benchmark
+    public List<InvertedIndex.Hit> rareTerm() {
+        return index.search(word(1000 + random.nextInt(VOCABULARY - 1000)), 20);
+    }
+
+    // A very common word narrowed down by a rare one: costs the rare word's postings, not the common one's
+    @Benchmark
+    public List<InvertedIndex.Hit> commonAndRareTerm() {
+        return index.search(word(random.nextInt(10)) + " " + word(1000 + random.nextInt(VOCABULARY - 1000)), 20);
+    }
+
+    // Two words of the middle of the distribution, each in thousands of items
+    @Benchmark
+    public List<InvertedIndex.Hit> twoMidTerms() {
+        return index.search(word(50 + random.nextInt(200)) + " " + word(50 + random.nextInt(200)), 20);
+    }
+
+    private static String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(word(zipf(random))).append(' ');
+        }
+        return text.toString();
+    }
+
+    // Rank r is drawn with a probability of about 1/r
+    private static int zipf(Random random) {
+        return (int) Math.min(VOCABULARY - 1, Math.floor(Math.exp(random.nextDouble() * Math.log(VOCABULARY))) - 1);
+    }
+
+    private static String word(int rank) {
+        return "w" + rank;
+    }
+}
@@ -0,0 +1,61 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.ItemStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Time of one full processItemsAsync pass over the table, per executor mode. Every invocation processes
+// every item again (scope ALL), so the invocations are comparable. workMs=0 measures the pipeline itself,
+// a non-zero workMs the overlap of the simulated per-item work (keep itemCount small, e.g. -p itemCount=10000).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ItemProcessingJmhBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int itemCount;
+
+    @Param({"FIXED", "VIRTUAL"})
+    private ItemProcessingProperties.ExecutorMode executor;
+
+    @Param({"0", "10"})
+    private int workMs;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(itemCount, "item.processing.executor=" + executor,
+                "item.processing.simulated-work-ms=" + workMs);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemStatus> processItemsAsync() throws Exception {
+        return itemService.processItemsAsync().get(30, TimeUnit.MINUTES);
+    }
+}
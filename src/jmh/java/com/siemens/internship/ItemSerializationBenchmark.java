@@ -0,0 +1,104 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Cost of one response body of `size` items. Compare the allocations per operation (gc.alloc.rate.norm,
+// reported by the default -prof gc of the jmh profile) and the returned sizes, printed once at setup:
+// - itemsReflective vs itemsHandWritten: the same JSON through Jackson's bean serializer and ItemJsonSerializer
+// - processResultItems vs processResultStatuses: what GET /api/items/process returned before and returns now
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ItemSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int size;
+
+    private final ObjectMapper reflective = new ObjectMapper();
+    private final ObjectMapper handWritten = new ObjectMapper()
+            .registerModule(new SimpleModule().addSerializer(Item.class, new ItemJsonSerializer()));
+
+    private List<Item> items;
+    private List<ItemStatus> statuses;
+    private ByteArrayOutputStream out;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        items = new ArrayList<>(size);
+        statuses = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            items.add(new Item(id, "Item " + id, "Description of item " + id, "PROCESSED", "item" + id + "@bench.com", 1L));
+            statuses.add(new ItemStatus(id, "PROCESSED"));
+        }
+        out = new ByteArrayOutputStream(size * 200);
+        System.out.printf("%n%d items: %d bytes as items, %d bytes as statuses%n",
+                size, itemsHandWritten(), processResultStatuses());
+    }
+
+    @Benchmark
+    public int itemsReflective() throws IOException {
+        return write(reflective, items);
+    }
+
+    @Benchmark
+    public int itemsHandWritten() throws IOException {
+        return write(handWritten, items);
+    }
+
+    // The streaming endpoints call ItemJsonSerializer.write directly on their generator
+    @Benchmark
+    public int itemsHandWrittenStreaming() throws IOException {
+        out.reset();
+        try (JsonGenerator generator = handWritten.createGenerator(out)) {
+            generator.writeStartArray();
+            for (Item item : items) {
+                ItemJsonSerializer.write(generator, item);
+            }
+            generator.writeEndArray();
+        }
+        return out.size();
+    }
+
+    // Full items through the bean serializer, as before
+    @Benchmark
+    public int processResultItems() throws IOException {
+        return write(reflective, items);
+    }
+
+    @Benchmark
+    public int processResultStatuses() throws IOException {
+        return write(handWritten, statuses);
+    }
+
+    // The buffer is reused so that only the serialisation itself allocates
+    private int write(ObjectMapper mapper, Object value) throws IOException {
+        out.reset();
+        mapper.writeValue(out, value);
+        return out.size();
+    }
+}
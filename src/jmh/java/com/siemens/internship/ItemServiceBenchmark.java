@@ -0,0 +1,81 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of the single item paths against a seeded table. Vary the thread count with -t, e.g. -t 1, -t 4, -t 16.
+// findById goes through the item cache, findByIdUncached straight to the repository to show what the cache saves.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int itemCount;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private ItemRepository itemRepository;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(itemCount);
+        itemService = context.getBean(ItemService.class);
+        itemRepository = context.getBean(ItemRepository.class);
+        ids = itemRepository.findAllIds();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Item> findById() {
+        return itemService.findById(randomId());
+    }
+
+    @Benchmark
+    public Optional<Item> findByIdUncached() {
+        return itemRepository.findById(randomId());
+    }
+
+    // Overwrites an existing item, so the table keeps its size during the run. Through update, which reads the
+    // current version: save treats an item without a version as new and would try to insert it
+    @Benchmark
+    public Item update() {
+        int i = ThreadLocalRandom.current().nextInt(ids.size());
+        return itemService.update(ids.get(i), BenchmarkContext.item(i), null);
+    }
+
+    @Benchmark
+    public List<Long> findAllIds() {
+        return itemRepository.findAllIds();
+    }
+
+    private Long randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
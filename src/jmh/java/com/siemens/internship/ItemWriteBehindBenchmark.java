@@ -0,0 +1,64 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of unconditional updates concentrated on `hotItems` items, written directly or through the write-behind
+// buffer. Run with several threads (-t 8): directly, every update holds a pooled connection for its own transaction,
+// with write-behind the updates to the same item are merged and written by one thread in batches.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ItemWriteBehindBenchmark {
+
+    private static final int ITEM_COUNT = 10_000;
+
+    @Param({"false", "true"})
+    private boolean writeBehind;
+
+    @Param({"10", "1000"})
+    private int hotItems;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(ITEM_COUNT, "item.write-behind.enabled=" + writeBehind);
+        itemService = context.getBean(ItemService.class);
+        ids = context.getBean(ItemRepository.class).findAllIds().subList(0, hotItems);
+    }
+
+    // Closing the context flushes what is still buffered
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Item update() {
+        int i = ThreadLocalRandom.current().nextInt(ids.size());
+        return itemService.update(ids.get(i), BenchmarkContext.item(i), null);
+    }
+}
@@ -0,0 +1,93 @@
+package com.siemens.internship;
+
+import com.siemens.internship.exception.DataProcessingException;
+
+// AIMD limit on the number of chunks in flight, in the spirit of Netflix's concurrency-limits.
+// Every completed chunk is a sample: if it failed, took longer than latencyTolerance times the baseline latency,
+// or a database connection was waited for longer than the threshold since the last sample, the limit is multiplied
+// by backoffRatio; otherwise it grows by one while the pipeline actually uses at least half of it.
+// The baseline follows the fastest recent chunks, rising slowly so that it adapts to a changing workload.
+class AdaptiveConcurrencyLimit {
+
+    private static final double BASELINE_DRIFT = 0.01; // How fast the baseline moves up towards slower samples
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final long poolWaitThresholdNanos;
+
+    private double limit;
+    private int inFlight;
+    private double baselineNanos = Double.NaN;
+    private long maxPoolWaitNanos; // Longest connection wait since the previous sample
+
+    AdaptiveConcurrencyLimit(ItemProcessingProperties.Adaptive config) {
+        if (config.getMinLimit() <= 0 || config.getMaxLimit() < config.getMinLimit()
+                || config.getBackoffRatio() <= 0 || config.getBackoffRatio() >= 1) {
+            throw new IllegalArgumentException("item.processing.adaptive needs 0 < min-limit <= max-limit and 0 < backoff-ratio < 1");
+        }
+        this.enabled = config.isEnabled();
+        this.minLimit = config.getMinLimit();
+        this.maxLimit = config.getMaxLimit();
+        this.backoffRatio = config.getBackoffRatio();
+        this.latencyTolerance = config.getLatencyTolerance();
+        this.poolWaitThresholdNanos = config.getPoolWaitThresholdMs() * 1_000_000;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, config.getInitialLimit()));
+    }
+
+    /**
+     * Waits until fewer chunks than the current limit are in flight, then counts one more.
+     */
+    synchronized void acquire() {
+        while (inFlight >= (int) limit) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataProcessingException("Interrupted while waiting for the processing concurrency limit", e);
+            }
+        }
+        inFlight++;
+    }
+
+    /**
+     * Ends a chunk started with {@link #acquire()} and adjusts the limit with its outcome.
+     *
+     * @param latencyNanos How long the chunk took through the pipeline.
+     * @param failed       Whether the chunk failed.
+     */
+    synchronized void release(long latencyNanos, boolean failed) {
+        if (enabled) {
+            boolean congested = failed || maxPoolWaitNanos > poolWaitThresholdNanos
+                    || (!Double.isNaN(baselineNanos) && latencyNanos > baselineNanos * latencyTolerance);
+            if (congested) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlight * 2 >= limit) { // Only grow when the current limit is actually used
+                limit = Math.min(maxLimit, limit + 1);
+            }
+            if (!failed) {
+                baselineNanos = Double.isNaN(baselineNanos) || latencyNanos < baselineNanos
+                        ? latencyNanos
+                        : baselineNanos + (latencyNanos - baselineNanos) * BASELINE_DRIFT;
+            }
+            maxPoolWaitNanos = 0;
+        }
+        inFlight--;
+        notifyAll();
+    }
+
+    // Called by every database task with how long it waited for a connection permit
+    synchronized void recordPoolWait(long waitNanos) {
+        maxPoolWaitNanos = Math.max(maxPoolWaitNanos, waitNanos);
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,111 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+// Writes items as CSV (RFC 4180, same columns as the CSV import) to a file channel through one direct buffer.
+// Every row is built in a reused StringBuilder, copied into a reused char buffer and encoded straight into the
+// byte buffer, so the writer allocates nothing per row (only when a row is longer than any before it, to grow the
+// char buffer) and the bytes go to the channel without a heap copy.
+class CsvItemWriter {
+
+    static final String HEADER = "id,name,description,status,email";
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder row = new StringBuilder(256);
+    private CharBuffer chars = CharBuffer.allocate(256);
+    private long rows;
+
+    CsvItemWriter(FileChannel channel, int bufferSize) {
+        this.channel = channel;
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    void writeHeader() throws IOException {
+        row.setLength(0);
+        row.append(HEADER).append('\n');
+        encodeRow();
+    }
+
+    void write(Item item) throws IOException {
+        row.setLength(0);
+        if (item.getId() != null) {
+            row.append(item.getId().longValue());
+        }
+        appendField(item.getName());
+        appendField(item.getDescription());
+        appendField(item.getStatus());
+        appendField(item.getEmail());
+        row.append('\n');
+        encodeRow();
+        rows++;
+    }
+
+    // Writes what is left in the buffer, the channel is closed by the caller
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    long getRows() {
+        return rows;
+    }
+
+    // Quotes a value only when it contains a separator, a quote or a line break, doubling its quotes
+    private void appendField(String value) {
+        row.append(',');
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            row.append(value);
+            return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+        row.append('"');
+    }
+
+    private void encodeRow() throws IOException {
+        if (row.length() > chars.capacity()) {
+            chars = CharBuffer.allocate(Math.max(row.length(), 2 * chars.capacity()));
+        }
+        chars.clear();
+        row.getChars(0, row.length(), chars.array(), 0);
+        chars.limit(row.length());
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                flush(); // Buffer full, write it out and continue encoding the rest of the row
+            } else if (result.isError()) {
+                result.throwException();
+            } else {
+                break;
+            }
+        }
+        encoder.reset();
+    }
+}
@@ -0,0 +1,242 @@
+package com.siemens.internship;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+// Inverted index over the name and description of the items, ranked with BM25.
+// Every indexed item gets an internal document number, increasing with each add, so every postings list is a sorted
+// int array that is only ever appended to. An update deletes the old document (a bit in a BitSet) and adds a new one;
+// the deleted documents are dropped from the postings when they make up a quarter of the index, like segment merges.
+// Not thread-safe: ItemTextIndex reads it under a read lock and changes it under a write lock.
+class InvertedIndex {
+
+    static final int NAME_BOOST = 2; // A term in the name counts as much as two in the description
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_TERM_LENGTH = 64;
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> docByItem = new HashMap<>();
+    private long[] itemByDoc = new long[1024];
+    private int[] docLength = new int[1024];
+    private BitSet deleted = new BitSet();
+    private int docCount; // Documents numbered so far, deleted ones included
+    private int deletedCount;
+    private long totalLength; // Of the live documents
+
+    /**
+     * Indexes an item, replacing what was indexed for it before.
+     */
+    void put(long itemId, String name, String description) {
+        remove(itemId);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(name)) {
+            frequencies.merge(term, NAME_BOOST, Integer::sum);
+        }
+        for (String term : tokenize(description)) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+
+        int doc = docCount++;
+        if (doc == itemByDoc.length) {
+            itemByDoc = Arrays.copyOf(itemByDoc, doc * 2);
+            docLength = Arrays.copyOf(docLength, doc * 2);
+        }
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(doc, entry.getValue());
+            length += entry.getValue();
+        }
+        itemByDoc[doc] = itemId;
+        docLength[doc] = length;
+        docByItem.put(itemId, doc);
+        totalLength += length;
+    }
+
+    void remove(long itemId) {
+        Integer doc = docByItem.remove(itemId);
+        if (doc == null) {
+            return;
+        }
+        deleted.set(doc);
+        deletedCount++;
+        totalLength -= docLength[doc];
+        if (deletedCount >= MIN_DELETED_TO_COMPACT && deletedCount * 4 >= docCount) {
+            compact();
+        }
+    }
+
+    int size() {
+        return docByItem.size();
+    }
+
+    /**
+     * Returns the items containing every term of the query, best BM25 score first.
+     * The postings lists are intersected starting with the shortest, so a query costs about
+     * the length of its rarest term's list, not the size of the index.
+     *
+     * @param query The keywords, tokenized like the indexed text.
+     * @param limit The maximum number of hits.
+     * @return The hits, by descending score then ascending item ID.
+     */
+    List<Hit> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || docByItem.isEmpty()) {
+            return List.of();
+        }
+        List<Postings> lists = new ArrayList<>(terms.size());
+        for (String term : terms) {
+            Postings list = postings.get(term);
+            if (list == null) {
+                return List.of(); // A term no item contains
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        int live = docByItem.size();
+        double averageLength = (double) totalLength / live;
+        double[] idf = new double[lists.size()];
+        for (int i = 0; i < idf.length; i++) {
+            int df = Math.min(lists.get(i).size, live); // Still counts deleted documents until the next compaction
+            idf[i] = Math.log(1 + (live - df + 0.5) / (df + 0.5));
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, BY_RANK.reversed()); // Worst hit on top
+        int[] cursors = new int[lists.size()];
+        Postings shortest = lists.get(0);
+        candidates:
+        for (int i = 0; i < shortest.size; i++) {
+            int doc = shortest.docs[i];
+            if (deleted.get(doc)) {
+                continue;
+            }
+            double normalization = K1 * (1 - B + B * docLength[doc] / averageLength);
+            double score = idf[0] * bm25(shortest.frequencies[i], normalization);
+            for (int l = 1; l < lists.size(); l++) {
+                Postings list = lists.get(l);
+                int position = list.advance(cursors[l], doc);
+                cursors[l] = position;
+                if (position == list.size || list.docs[position] != doc) {
+                    continue candidates;
+                }
+                score += idf[l] * bm25(list.frequencies[position], normalization);
+            }
+            top.add(new Hit(itemByDoc[doc], score));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(BY_RANK);
+        return hits;
+    }
+
+    private static double bm25(int frequency, double normalization) {
+        return frequency * (K1 + 1) / (frequency + normalization);
+    }
+
+    // Lower case runs of letters and digits, in order
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean inTerm = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (inTerm && start < 0) {
+                start = i;
+            } else if (!inTerm && start >= 0) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    // Renumbers the live documents in their current order, which keeps every postings list sorted
+    private void compact() {
+        int[] newDoc = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (deleted.get(doc)) {
+                newDoc[doc] = -1;
+            } else {
+                newDoc[doc] = live;
+                itemByDoc[live] = itemByDoc[doc];
+                docLength[live] = docLength[doc];
+                docByItem.put(itemByDoc[live], live);
+                live++;
+            }
+        }
+        postings.values().removeIf(list -> list.compact(newDoc) == 0);
+        docCount = live;
+        deletedCount = 0;
+        deleted = new BitSet();
+    }
+
+    record Hit(long itemId, double score) {
+    }
+
+    private static final Comparator<Hit> BY_RANK = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparingLong(Hit::itemId);
+
+    private static final class Postings {
+
+        private int[] docs = new int[2];
+        private int[] frequencies = new int[2];
+        private int size;
+
+        private void add(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        // First position at or after from whose document is >= doc: galloping, then a binary search
+        private int advance(int from, int doc) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            while (high < size && docs[high] < doc) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(docs, low, Math.min(high + 1, size), doc);
+            return index >= 0 ? index : -index - 1;
+        }
+
+        private int compact(int[] newDoc) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int doc = newDoc[docs[i]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            return kept;
+        }
+    }
+}
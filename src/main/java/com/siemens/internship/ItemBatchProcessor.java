@@ -0,0 +1,154 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Database side of the processing pipeline, one transaction per chunk.
+// Kept in its own bean so that @Transactional goes through the Spring proxy
+// (calling a @Transactional method from inside the pipeline would bypass it).
+@Component
+public class ItemBatchProcessor {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Loads every item of the chunk with one query. The items are detached once the transaction ends,
+     * so no connection is held while they are transformed.
+     *
+     * @param ids The IDs belonging to this chunk.
+     * @return The items that still exist.
+     */
+    @Transactional(readOnly = true)
+    public List<Item> loadChunk(List<Long> ids) {
+        return itemRepository.findAllById(ids);
+    }
+
+    /**
+     * Writes a transformed chunk back. The current rows are loaded with one query and the new status is set
+     * on them, so an item updated by a client while its chunk was being transformed keeps that update
+     * (merging the transformed copies would fail on their stale version instead). The updates are then
+     * flushed together on commit as JDBC batches (hibernate.jdbc.batch_size).
+     *
+     * @param items The transformed items of this chunk.
+     * @return The saved items (items deleted since they were loaded are skipped).
+     */
+    @Transactional
+    public List<Item> persistChunk(List<Item> items) {
+        Map<Long, Item> current = itemRepository.findAllById(items.stream().map(Item::getId).toList()).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> saved = new ArrayList<>(current.size());
+        for (Item item : items) {
+            Item existing = current.get(item.getId());
+            if (existing != null) {
+                existing.setStatus(item.getStatus()); // Processing only changes the status
+                saved.add(existing);
+            }
+        }
+        itemRepository.flush(); // So the returned items carry their new version
+        return saved;
+    }
+
+    /**
+     * Fast path for when processing only flips the status: marks the whole chunk PROCESSED
+     * with one bulk UPDATE, without hydrating any entity.
+     *
+     * @param ids The IDs belonging to this chunk.
+     * @return The IDs that were actually updated.
+     */
+    @Transactional
+    public List<Long> markChunkProcessed(List<Long> ids) {
+        int updated = itemRepository.updateStatusByIds(ids, "PROCESSED");
+        if (updated == ids.size()) {
+            return ids;
+        }
+        // Some items were deleted after the chunk was read, only report the ones that still exist
+        return itemRepository.findExistingIds(ids);
+    }
+
+    /**
+     * Inserts a chunk of new items. The IDs come from the pooled sequence without a round trip per row,
+     * so the INSERTs are flushed on commit as JDBC batches.
+     *
+     * @param items The new items of this chunk, all without an ID.
+     * @return The saved items with their generated IDs, in the same order.
+     */
+    @Transactional
+    public List<Item> createChunk(List<Item> items) {
+        return itemRepository.saveAll(items);
+    }
+
+    /**
+     * Inserts a chunk of an import. Unlike {@link #createChunk(List)} the rows bypass the second-level cache.
+     * The inserts are flushed at commit, where a database error is translated into a DataAccessException,
+     * and the persistence context ends with the transaction, so a long import never accumulates managed entities
+     * or cache entries.
+     *
+     * @param items The new items of this chunk, all without an ID.
+     * @return The number of inserted items.
+     */
+    @Transactional
+    public int importChunk(List<Item> items) {
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+        for (Item item : items) {
+            entityManager.persist(item);
+        }
+        return items.size();
+    }
+
+    /**
+     * Overwrites the items of a chunk that still exist. The current rows are loaded with one query and
+     * the new values copied onto them, so the UPDATEs are flushed as JDBC batches.
+     *
+     * @param items The new values of the items, by ID.
+     * @return The updated items with their new version (items that do not exist are skipped).
+     */
+    @Transactional
+    public Collection<Item> updateChunk(List<Item> items) {
+        Map<Long, Item> existing = itemRepository.findAllById(items.stream().map(Item::getId).toList()).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        for (Item item : items) {
+            Item current = existing.get(item.getId());
+            if (current != null) {
+                current.setName(item.getName());
+                current.setDescription(item.getDescription());
+                current.setStatus(item.getStatus());
+                current.setEmail(item.getEmail());
+            }
+        }
+        itemRepository.flush(); // So the returned items carry their new version
+        return existing.values();
+    }
+
+    /**
+     * Deletes the items of a chunk that still exist with one DELETE statement.
+     *
+     * @param ids The IDs belonging to this chunk.
+     * @return The IDs that were deleted (items that do not exist are skipped).
+     */
+    @Transactional
+    public List<Long> deleteChunk(List<Long> ids) {
+        List<Long> existingIds = itemRepository.findExistingIds(ids);
+        if (!existingIds.isEmpty()) {
+            itemRepository.deleteAllByIdInBatch(existingIds);
+            itemRepository.incrementTableRevision(); // A bulk DELETE fires no entity events
+        }
+        return existingIds;
+    }
+}
@@ -0,0 +1,291 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.siemens.internship.model.BulkResult;
+import com.siemens.internship.model.ImportResult;
+import com.siemens.internship.model.Item;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Bulk create, update, delete and import. The request body is read one element at a time (a JSON array or
+// newline-delimited JSON), every element is validated on its own and the valid ones are written
+// chunk by chunk, one transaction and one JDBC batch per chunk, so memory does not grow with the body.
+@Service
+public class ItemBulkService {
+
+    @Autowired
+    private ItemBatchProcessor batchProcessor;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ItemChangeFeed changeFeed;
+
+    @Autowired
+    private ItemWriteBuffer writeBuffer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+
+    private final int chunkSize;
+
+    public ItemBulkService(@Value("${item.bulk.chunk-size:500}") int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("item.bulk.chunk-size must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Creates every valid item of the body. IDs in the body are ignored, new ones are generated.
+     *
+     * @param body A JSON array of items or one JSON item per line.
+     * @return The generated IDs and the errors of the rejected elements.
+     */
+    public BulkResult createAll(InputStream body) {
+        BulkResult result = new BulkResult();
+        List<Element<Item>> chunk = new ArrayList<>(chunkSize);
+        this.<Item>readEach(body, objectMapper.readerFor(Item.class), result::addError, element -> {
+            if (isValid(element, result::addError)) {
+                element.value().setId(null);
+                chunk.add(element);
+                if (chunk.size() == chunkSize) {
+                    createChunk(chunk, result);
+                }
+            }
+        });
+        createChunk(chunk, result);
+        return result;
+    }
+
+    /**
+     * Overwrites every valid item of the body that exists.
+     *
+     * @param body A JSON array of items or one JSON item per line, each with its ID.
+     * @return The updated IDs and the errors of the rejected elements.
+     */
+    public BulkResult updateAll(InputStream body) {
+        BulkResult result = new BulkResult();
+        List<Element<Item>> chunk = new ArrayList<>(chunkSize);
+        this.<Item>readEach(body, objectMapper.readerFor(Item.class), result::addError, element -> {
+            if (element.value() != null && element.value().getId() == null) {
+                result.addError(element.index(), null, List.of("id is required"));
+            } else if (isValid(element, result::addError)) {
+                chunk.add(element);
+                if (chunk.size() == chunkSize) {
+                    updateChunk(chunk, result);
+                }
+            }
+        });
+        updateChunk(chunk, result);
+        return result;
+    }
+
+    /**
+     * Deletes every item of the body that exists.
+     *
+     * @param body A JSON array of IDs or one ID per line.
+     * @return The deleted IDs and an error for every ID that was not found.
+     */
+    public BulkResult deleteAll(InputStream body) {
+        BulkResult result = new BulkResult();
+        List<Element<Long>> chunk = new ArrayList<>(chunkSize);
+        this.<Long>readEach(body, objectMapper.readerFor(Long.class), result::addError, element -> {
+            if (element.value() == null) {
+                result.addError(element.index(), null, List.of("id is required"));
+                return;
+            }
+            chunk.add(element);
+            if (chunk.size() == chunkSize) {
+                deleteChunk(chunk, result);
+            }
+        });
+        deleteChunk(chunk, result);
+        return result;
+    }
+
+    /**
+     * Imports an upload of any size: rows are parsed one at a time from the request stream, validated, and
+     * inserted in chunks whose persistence context is cleared after every commit, so the heap stays constant
+     * however many rows there are. Unlike {@link #createAll(InputStream)}, the generated IDs are not returned
+     * and only the first {@link ImportResult#MAX_REPORTED_ERRORS} errors are listed.
+     *
+     * @param body NDJSON (or a JSON array), or CSV with a header line naming the columns.
+     * @param csv  true if the body is CSV.
+     * @return The row counts, the first errors and the import rate.
+     */
+    public ImportResult importItems(InputStream body, boolean csv) {
+        long start = System.nanoTime();
+        ImportResult result = new ImportResult();
+        ObjectReader reader = csv
+                ? CSV_MAPPER.readerFor(Item.class).with(CsvSchema.emptySchema().withHeader())
+                : objectMapper.readerFor(Item.class);
+        List<Element<Item>> chunk = new ArrayList<>(chunkSize);
+        this.<Item>readEach(body, reader, result::addError, element -> {
+            if (isValid(element, result::addError)) {
+                element.value().setId(null);
+                chunk.add(element);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, result);
+                }
+            }
+        });
+        importChunk(chunk, result);
+        result.finish(Duration.ofNanos(System.nanoTime() - start));
+        return result;
+    }
+
+    // Hands the elements of the body to the action one at a time. Malformed input cannot be resynchronised,
+    // so it is reported as an error of the element it was found in and ends the reading; earlier elements are kept
+    private <T> void readEach(InputStream body, ObjectReader reader, ErrorReporter errors, Consumer<Element<T>> action) {
+        int index = 0;
+        try (MappingIterator<T> values = reader.readValues(body)) {
+            while (values.hasNextValue()) {
+                action.accept(new Element<>(index, values.nextValue()));
+                index++;
+            }
+        } catch (IOException e) {
+            String reason = e instanceof JsonProcessingException jsonError ? jsonError.getOriginalMessage() : e.getMessage();
+            errors.addError(index, null, List.of("Malformed input: " + reason));
+        }
+    }
+
+    private boolean isValid(Element<Item> element, ErrorReporter errors) {
+        Item item = element.value();
+        if (item == null) {
+            errors.addError(element.index(), null, List.of("item is required"));
+            return false;
+        }
+        Set<ConstraintViolation<Item>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return true;
+        }
+        errors.addError(element.index(), item.getId(), violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList());
+        return false;
+    }
+
+    private void createChunk(List<Element<Item>> chunk, BulkResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<Item> saved = batchProcessor.createChunk(chunk.stream().map(Element::value).toList());
+            saved.forEach(item -> result.addSuccess(item.getId()));
+            changeFeed.created(saved);
+        } catch (DataAccessException e) {
+            failChunk(chunk, result::addError, e, element -> null);
+        }
+        chunk.clear();
+    }
+
+    private void importChunk(List<Element<Item>> chunk, ImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<Item> items = chunk.stream().map(Element::value).toList();
+            result.addImported(batchProcessor.importChunk(items));
+            changeFeed.created(items); // Persisting assigned their IDs
+        } catch (DataAccessException e) {
+            failChunk(chunk, result::addError, e, element -> null);
+        }
+        chunk.clear();
+    }
+
+    private void updateChunk(List<Element<Item>> chunk, BulkResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Long> ids = chunk.stream().map(element -> element.value().getId()).toList();
+        try {
+            writeBuffer.discard(ids); // Buffered single updates are older than this one
+            Collection<Item> updated = batchProcessor.updateChunk(chunk.stream().map(Element::value).toList());
+            reportById(chunk, updated.stream().map(Item::getId).collect(Collectors.toSet()), result,
+                    element -> element.value().getId());
+            changeFeed.updated(updated);
+        } catch (DataAccessException e) {
+            failChunk(chunk, result::addError, e, element -> element.value().getId());
+        } finally {
+            itemCache.invalidateAll(ids);
+        }
+        chunk.clear();
+    }
+
+    private void deleteChunk(List<Element<Long>> chunk, BulkResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Long> ids = chunk.stream().map(Element::value).toList();
+        try {
+            writeBuffer.discard(ids);
+            List<Long> deleted = batchProcessor.deleteChunk(ids);
+            reportById(chunk, Set.copyOf(deleted), result, Element::value);
+            changeFeed.deleted(deleted);
+        } catch (DataAccessException e) {
+            failChunk(chunk, result::addError, e, Element::value);
+        } finally {
+            itemCache.invalidateAll(ids);
+        }
+        chunk.clear();
+    }
+
+    private static <T> void reportById(List<Element<T>> chunk, Collection<Long> done, BulkResult result,
+                                       Function<Element<T>, Long> idOf) {
+        for (Element<T> element : chunk) {
+            Long id = idOf.apply(element);
+            if (done.contains(id)) {
+                result.addSuccess(id);
+            } else {
+                result.addError(element.index(), id, List.of("Item not found with id: " + id));
+            }
+        }
+    }
+
+    // The chunk was rolled back as a whole, so every element of it is reported with the database error
+    private static <T> void failChunk(List<Element<T>> chunk, ErrorReporter errors, DataAccessException cause,
+                                      Function<Element<T>, Long> idOf) {
+        String reason = "Failed to save: " + cause.getMostSpecificCause().getMessage();
+        for (Element<T> element : chunk) {
+            errors.addError(element.index(), idOf.apply(element), List.of(reason));
+        }
+    }
+
+    // Where the errors of rejected elements go, BulkResult or ImportResult
+    @FunctionalInterface
+    private interface ErrorReporter {
+        void addError(int index, Long id, List<String> messages);
+    }
+
+    // An element of the body with its position, used to report errors against the request
+    private record Element<T>(int index, T value) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.siemens.internship;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemCacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Bounded in-process cache of items by ID, in front of the database for single item reads.
+// Caffeine evicts by size with W-TinyLFU (keeps the frequently read ids) and by age after the TTL.
+// Callers always get a copy, so changing a returned item can never change the cached one.
+@Component
+public class ItemCache {
+
+    private final Cache<Long, Item> cache;
+    private final boolean enabled; // A maximum size of 0 turns the cache off, reads then always go to the loader
+
+    public ItemCache(@Value("${item.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${item.cache.ttl:10m}") Duration ttl) {
+        this.enabled = maximumSize > 0;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached item, or loads it with the loader and caches it. Missing items are not cached.
+     * Concurrent reads of the same missing id share one load.
+     *
+     * @param id     The ID of the item.
+     * @param loader Reads the item from the database.
+     * @return A copy of the item, or empty if it does not exist.
+     */
+    public Optional<Item> get(Long id, Function<Long, Optional<Item>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        Item item = cache.get(id, key -> loader.apply(key).map(ItemCache::copyOf).orElse(null));
+        return Optional.ofNullable(item).map(ItemCache::copyOf);
+    }
+
+    // Called after a successful save so that the next read already sees the new state.
+    // Two saves of the same item can finish in either order, so the higher version wins: a put that arrives late
+    // never replaces a newer cached value. Without a version there is nothing to compare, the entry is dropped
+    public void put(Item item) {
+        if (!enabled || item.getId() == null) {
+            return;
+        }
+        if (item.getVersion() == null) {
+            cache.invalidate(item.getId());
+            return;
+        }
+        cache.asMap().merge(item.getId(), copyOf(item), ItemCache::newer);
+    }
+
+    private static Item newer(Item cached, Item saved) {
+        return cached.getVersion() == null || saved.getVersion() >= cached.getVersion() ? saved : cached;
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll(Collection<Long> ids) {
+        cache.invalidateAll(ids);
+    }
+
+    public ItemCacheStats stats() {
+        CacheStats stats = cache.stats();
+        return new ItemCacheStats(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+
+    static Item copyOf(Item item) {
+        return new Item(item.getId(), item.getName(), item.getDescription(), item.getStatus(), item.getEmail(),
+                item.getVersion());
+    }
+}
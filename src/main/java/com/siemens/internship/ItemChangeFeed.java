@@ -0,0 +1,205 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChange;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+// Change data feed of the items: every committed write appends its changes to an in-memory ring buffer,
+// which subscribers read through server-sent events from any offset still retained.
+// Writers only copy into the ring, events are sent by a single dispatcher thread so a slow client never
+// holds up a write. The feed is local to this node and starts empty on every start.
+@Component
+public class ItemChangeFeed {
+
+    static final String RESET_EVENT = "RESET";
+    private static final int MAX_EVENTS_PER_PASS = 1000; // Per subscriber, so one far behind does not starve the others
+
+    private final ItemChange[] ring;
+    private long nextOffset; // Offset of the next change, guarded by this
+    private final long emitterTimeoutMillis;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final List<Consumer<List<ItemChange>>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final ExecutorService dispatcher =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("item-change-feed").daemon().factory());
+
+    public ItemChangeFeed(@Value("${item.changes.capacity:10000}") int capacity,
+                          @Value("${item.changes.emitter-timeout:30m}") Duration emitterTimeout) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("item.changes.capacity must be positive");
+        }
+        this.ring = new ItemChange[capacity];
+        this.emitterTimeoutMillis = emitterTimeout.toMillis();
+    }
+
+    public void created(Collection<Item> items) {
+        append(items.stream().map(item -> change(ItemChange.Type.CREATED, item.getId(), item.getStatus(), item)).toList());
+    }
+
+    public void updated(Collection<Item> items) {
+        append(items.stream().map(item -> change(ItemChange.Type.UPDATED, item.getId(), item.getStatus(), item)).toList());
+    }
+
+    public void statusChanged(Collection<Item> items) {
+        append(items.stream().map(item -> change(ItemChange.Type.STATUS_CHANGED, item.getId(), item.getStatus(), null)).toList());
+    }
+
+    public void statusChanged(Collection<Long> ids, String status) {
+        append(ids.stream().map(id -> change(ItemChange.Type.STATUS_CHANGED, id, status, null)).toList());
+    }
+
+    public void deleted(Collection<Long> ids) {
+        append(ids.stream().map(id -> change(ItemChange.Type.DELETED, id, null, null)).toList());
+    }
+
+    /**
+     * Subscribes to the changes from the given offset on. The emitter first replays the retained changes
+     * from that offset, then follows the new ones. If the offset is no longer retained a RESET event is sent
+     * first: the client missed changes and has to read the items again before following the feed.
+     *
+     * @param fromOffset The offset of the first change to receive, null for only the changes from now on.
+     * @return The emitter to return from the controller.
+     */
+    public SseEmitter subscribe(Long fromOffset) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber;
+        synchronized (this) {
+            subscriber = new Subscriber(emitter, fromOffset == null ? nextOffset : Math.min(fromOffset, nextOffset));
+        }
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        scheduleDispatch();
+        return emitter;
+    }
+
+    /**
+     * Registers an in-process consumer of the changes, such as a derived index of the items.
+     * It is called on the writing thread in offset order, so it must be quick and must not throw.
+     *
+     * @param listener Called with every batch of changes once it is appended.
+     */
+    public void addListener(Consumer<List<ItemChange>> listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized long getNextOffset() {
+        return nextOffset;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private static ItemChange change(ItemChange.Type type, Long itemId, String status, Item item) {
+        return new ItemChange(0, type, itemId, status, item == null ? null : ItemCache.copyOf(item), Instant.now());
+    }
+
+    private void append(List<ItemChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            for (ItemChange change : changes) {
+                change.setOffset(nextOffset);
+                ring[(int) (nextOffset % ring.length)] = change;
+                nextOffset++;
+            }
+            for (Consumer<List<ItemChange>> listener : listeners) {
+                listener.accept(changes); // Under the lock, so listeners see the changes in the same order as the ring
+            }
+        }
+        if (!subscribers.isEmpty()) {
+            scheduleDispatch();
+        }
+    }
+
+    // Coalesces the appends made while a dispatch is pending into a single pass
+    private void scheduleDispatch() {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(this::dispatch);
+        }
+    }
+
+    private void dispatch() {
+        dispatchScheduled.set(false);
+        boolean behind = false;
+        for (Subscriber subscriber : subscribers) {
+            behind |= send(subscriber);
+        }
+        if (behind) {
+            scheduleDispatch();
+        }
+    }
+
+    // Sends the next changes to one subscriber, returns true if it still has changes to receive
+    private boolean send(Subscriber subscriber) {
+        List<ItemChange> changes;
+        boolean reset = false;
+        synchronized (this) {
+            long oldest = Math.max(0, nextOffset - ring.length);
+            if (subscriber.cursor < oldest) {
+                reset = true;
+                subscriber.cursor = oldest;
+            }
+            long end = Math.min(nextOffset, subscriber.cursor + MAX_EVENTS_PER_PASS);
+            changes = new ArrayList<>((int) (end - subscriber.cursor));
+            for (long offset = subscriber.cursor; offset < end; offset++) {
+                changes.add(ring[(int) (offset % ring.length)]);
+            }
+        }
+        try {
+            if (reset) {
+                subscriber.emitter.send(SseEmitter.event().name(RESET_EVENT).data(subscriber.cursor));
+            }
+            for (ItemChange change : changes) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(String.valueOf(change.getOffset()))
+                        .name(change.getType().name())
+                        .data(change));
+                subscriber.cursor = change.getOffset() + 1;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter timed out, it resumes with a new subscription
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+        synchronized (this) {
+            return subscriber.cursor < nextOffset;
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private long cursor; // Offset of the next change to send, only used by the dispatcher thread
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
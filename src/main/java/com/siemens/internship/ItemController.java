@@ -1,13 +1,36 @@
 package com.siemens.internship;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.exception.InvalidRequestException;
+import com.siemens.internship.exception.PreconditionFailedException;
 import com.siemens.internship.exception.ResourceNotFoundException;
+import com.siemens.internship.model.BulkResult;
+import com.siemens.internship.model.HibernateCacheStats;
+import com.siemens.internship.model.ImportResult;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemCacheStats;
+import com.siemens.internship.model.ItemPage;
+import com.siemens.internship.model.ItemSearchPage;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.model.ItemTextHit;
+import com.siemens.internship.model.ItemTableVersion;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
@@ -16,12 +39,95 @@ import java.util.concurrent.CompletableFuture;
 @RequestMapping("/api/items")
 public class ItemController {
 
+    // RFC 7240 preference asking for the complete, current representation of the updated item
+    private static final String PREFER = "Prefer";
+    private static final String RETURN_REPRESENTATION = "return=representation";
+
     @Autowired
     private ItemService itemService;
 
+    @Autowired
+    private ItemBulkService itemBulkService;
+
+    @Autowired
+    private ItemChangeFeed changeFeed;
+
+    @Autowired
+    private ItemLoadProtection loadProtection; // Writes and processing may be refused with 429/503, reads never are
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // Streams the items while the rows are read, so the whole table is never held in memory as a List<Item>.
+    // Written as one JSON array by default, or as NDJSON (one item per line) with "Accept: application/x-ndjson".
+    // The ETag changes with any write to the table, a poll with a matching "If-None-Match" gets 304 and no body
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
-        return new ResponseEntity<>(itemService.findAll(), HttpStatus.OK);
+    public ResponseEntity<StreamingResponseBody> getAllItems(
+            @RequestHeader(value = HttpHeaders.ACCEPT, defaultValue = MediaType.APPLICATION_JSON_VALUE) String accept,
+            WebRequest request) {
+        boolean ndjson = accept.contains(MediaType.APPLICATION_NDJSON_VALUE);
+        String eTag = collectionETag(itemService.getTableVersion(), ndjson);
+        if (request.checkNotModified(eTag)) {
+            return null; // The 304 status and the ETag are already set on the response
+        }
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = createGenerator(out)) {
+                if (ndjson) {
+                    itemService.forEachItem(item -> {
+                        writeItem(generator, item);
+                        writeNewLine(generator);
+                    });
+                } else {
+                    generator.writeStartArray();
+                    itemService.forEachItem(item -> writeItem(generator, item));
+                    generator.writeEndArray();
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache()) // Clients may keep the body but must revalidate it
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body);
+    }
+
+    // Filtered listing: any combination of status, email domain (emailDomain=example.com) and name prefix,
+    // returned as summaries (no description) in cursor based pages like /page
+    @GetMapping("/search")
+    public ResponseEntity<ItemSearchPage> searchItems(@RequestParam(required = false) String status,
+                                                      @RequestParam(required = false) String emailDomain,
+                                                      @RequestParam(required = false) String namePrefix,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(defaultValue = "100") int limit) {
+        return new ResponseEntity<>(itemService.search(status, emailDomain, namePrefix, cursor, limit), HttpStatus.OK);
+    }
+
+    // Keyword search over name and description, ranked by relevance
+    @GetMapping("/search/text")
+    public ResponseEntity<List<ItemTextHit>> searchItemsByText(@RequestParam String q,
+                                                               @RequestParam(defaultValue = "20") int limit) {
+        return new ResponseEntity<>(itemService.searchText(q, limit), HttpStatus.OK);
+    }
+
+    // Change feed as server-sent events (one event per created, updated, processed or deleted item) instead of
+    // polling the whole collection. Starts at ?offset=, or after "Last-Event-ID" when an EventSource reconnects,
+    // or with the next change when neither is given. A RESET event means changes were missed: read the items again
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long offset,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Long from = lastEventId != null ? Long.valueOf(lastEventId + 1) : offset;
+        if (from != null && from < 0) {
+            throw new InvalidRequestException("offset must not be negative");
+        }
+        return changeFeed.subscribe(from);
+    }
+
+    // Cursor based paging: pass the nextCursor of a page to get the following one
+    @GetMapping("/page")
+    public ResponseEntity<ItemPage> getItemPage(@RequestParam(required = false) String cursor,
+                                                @RequestParam(defaultValue = "100") int limit) {
+        return new ResponseEntity<>(itemService.findPage(cursor, limit), HttpStatus.OK);
     }
 
 //    @Valid @RequestBody makes sure that spring validates the requestbody before executing the function code,
@@ -29,13 +135,49 @@ public class ItemController {
 //    MethodArgumentNotValidException is automatically caught by the @ControllerAdvice component
     @PostMapping
     public ResponseEntity<Item> createItem(@Valid @RequestBody Item item) {
-        return new ResponseEntity<>(itemService.save(item), HttpStatus.CREATED); // Status CREATED for when the data is valid
+        loadProtection.admit(ItemLoadProtection.WRITE);
+        item.setId(null); // The ID is always generated, a client-supplied one would overwrite an existing item
+        item.setVersion(null); // A new item always starts at the first version
+        Item saved = itemService.save(item);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(eTag(saved)).body(saved); // Status CREATED for when the data is valid
     }
 
+    // Bulk endpoints: the body is a JSON array or NDJSON (one element per line) and is read as a stream.
+    // Invalid elements are reported one by one in the result and never abort the rest of the batch
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkResult> createItems(InputStream body) {
+        loadProtection.admit(ItemLoadProtection.BULK);
+        return new ResponseEntity<>(itemBulkService.createAll(body), HttpStatus.OK);
+    }
+
+    @PutMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkResult> updateItems(InputStream body) {
+        loadProtection.admit(ItemLoadProtection.BULK);
+        return new ResponseEntity<>(itemBulkService.updateAll(body), HttpStatus.OK);
+    }
+
+    // The body holds the IDs to delete
+    @DeleteMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkResult> deleteItems(InputStream body) {
+        loadProtection.admit(ItemLoadProtection.BULK);
+        return new ResponseEntity<>(itemBulkService.deleteAll(body), HttpStatus.OK);
+    }
+
+    // Import of large uploads in NDJSON (or a JSON array) or CSV with a header line ("Content-Type: text/csv").
+    // Returns counts, the first errors and rows/s instead of the created items
+    @PostMapping(value = "/import",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public ResponseEntity<ImportResult> importItems(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                    InputStream body) {
+        loadProtection.admit(ItemLoadProtection.BULK);
+        return new ResponseEntity<>(itemBulkService.importItems(body, contentType.contains("csv")), HttpStatus.OK);
+    }
+
+    // Spring answers 304 without writing the body when "If-None-Match" matches the ETag (the item's version)
     @GetMapping("/{id}")
     public ResponseEntity<Item> getItemById(@PathVariable Long id) {
         return itemService.findById(id)
-                .map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+                .map(item -> ResponseEntity.ok().eTag(eTag(item)).cacheControl(CacheControl.noCache()).body(item))
                 .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + id));
     }
 //    @GetMapping("/{id}")
@@ -45,14 +187,60 @@ public class ItemController {
 //                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND)); //NOT_FOUND instead of NO_CONTENT
 //    }
 
+    // Hit/miss/eviction counters of the cache used by getItemById
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ItemCacheStats> getCacheStats() {
+        return new ResponseEntity<>(itemService.getCacheStats(), HttpStatus.OK);
+    }
+
+    // Hit ratios of Hibernate's second-level cache for Item and of the query cache, all 0 while they are disabled (the default)
+    @GetMapping("/cache/hibernate-stats")
+    public ResponseEntity<HibernateCacheStats> getHibernateCacheStats() {
+        return new ResponseEntity<>(itemService.getHibernateCacheStats(), HttpStatus.OK);
+    }
+
+    // Read-modify-write in one transaction guarded by the item's version. With "If-Match" (the ETag of a previous
+    // read) the update is conditional and fails with 412 when someone else changed the item in between,
+    // without it a concurrent change is retried on top of the newer version.
+    // In write-behind mode an unconditional update is buffered and answered without a version nor an ETag, since
+    // neither exists before it is written. A client that wants to use the response for a later If-Match sends
+    // "Prefer: return=representation": the update is then written directly and answered with its ETag
     @PutMapping("/{id}")
-    public ResponseEntity<Item> updateItem(@PathVariable Long id, @Valid @RequestBody Item item) {
-        if (!itemService.existsById(id)) {
-            throw new ResourceNotFoundException("Item not found with id: " + id);
+    public ResponseEntity<Item> updateItem(@PathVariable Long id, @Valid @RequestBody Item item,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                           @RequestHeader(value = PREFER, required = false) String prefer) {
+        loadProtection.admit(ItemLoadProtection.WRITE);
+        boolean representation = prefer != null && prefer.contains(RETURN_REPRESENTATION);
+        Item updated = itemService.update(id, item, parseIfMatch(ifMatch), !representation);
+        return ResponseEntity.ok().eTag(eTag(updated)).body(updated); // CREATED should only be used when a new resource is created
+    }
+
+    // "*" (or no header) matches any version, anything else must be one of our ETags
+    private static Long parseIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current version of the item");
         }
-        item.setId(id);
-        return new ResponseEntity<>(itemService.save(item), HttpStatus.OK); // CREATED should only be used when a new resource is created
     }
+
+    // An update still in the write-behind buffer has no version yet, so it gets no ETag
+    private static String eTag(Item item) {
+        return item.getVersion() == null ? null : "\"" + item.getVersion() + "\"";
+    }
+
+    // The two representations of the collection differ, so they get different ETags
+    private static String collectionETag(ItemTableVersion version, boolean ndjson) {
+        return "\"items-" + version.getRevision() + (ndjson ? "-ndjson" : "") + "\"";
+    }
+
 //    @PutMapping("/{id}")
 //    public ResponseEntity<Item> updateItem(@PathVariable Long id, @Valid @RequestBody Item item) {
 //        Optional<Item> existingItem = itemService.findById(id);
@@ -66,6 +254,7 @@ public class ItemController {
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteItem(@PathVariable Long id) {
+        loadProtection.admit(ItemLoadProtection.WRITE);
         if (itemService.existsById(id)) {
             itemService.deleteById(id);
             return new ResponseEntity<>(HttpStatus.NO_CONTENT); // NOT_CONTENT for successful deletion
@@ -74,11 +263,43 @@ public class ItemController {
         }
     }
 
+    // pendingOnly=true skips the items that are already PROCESSED. Returns the ID and new status of each item.
+    // A request made while the same run is in progress gets the result of that run instead of starting another one
     @GetMapping("/process")
-    public CompletableFuture<ResponseEntity<List<Item>>> processItems() {
-        return itemService.processItemsAsync()
+    public CompletableFuture<ResponseEntity<List<ItemStatus>>> processItems(@RequestParam(defaultValue = "false") boolean pendingOnly) {
+        return loadProtection.singleFlight("process?pendingOnly=" + pendingOnly, () -> itemService.processItemsAsync(pendingOnly))
                 .thenApply(items -> new ResponseEntity<>(items, HttpStatus.OK));
     }
 
+    // Fast path: only flips the status with set-based updates and returns the processed IDs instead of full items
+    @GetMapping("/process/ids")
+    public CompletableFuture<ResponseEntity<List<Long>>> markItemsProcessed(@RequestParam(defaultValue = "false") boolean pendingOnly) {
+        return loadProtection.singleFlight("process/ids?pendingOnly=" + pendingOnly, () -> itemService.markAllProcessedAsync(pendingOnly))
+                .thenApply(ids -> new ResponseEntity<>(ids, HttpStatus.OK));
+    }
+
+    // The response stream is left open for Spring to flush and close
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private static void writeItem(JsonGenerator generator, Item item) {
+        try {
+            ItemJsonSerializer.write(generator, item);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeNewLine(JsonGenerator generator) {
+        try {
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
 
 }
@@ -0,0 +1,70 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.ItemExport;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+// Bulk export for reporting: POST writes a CSV snapshot of the item table, GET /file downloads the latest one.
+// Only POST reads the table, so only POST is admitted through the BULK rate limit. The GETs are exempt on purpose,
+// like the other reads: they return the finished snapshot (a file, sent by the kernel where possible) and never
+// touch the database nor wait for an export in progress
+@RestController
+@RequestMapping("/api/items/export")
+public class ItemExportController {
+
+    // Request attributes through which Tomcat sends a file with sendfile(2), as its DefaultServlet does
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    @Autowired
+    private ItemExportService exportService;
+
+    @Autowired
+    private ItemLoadProtection loadProtection;
+
+    @PostMapping
+    public ResponseEntity<ItemExport> createExport() {
+        loadProtection.admit(ItemLoadProtection.BULK);
+        return ResponseEntity.created(URI.create("/api/items/export/file"))
+                .body(exportService.export());
+    }
+
+    @GetMapping
+    public ResponseEntity<ItemExport> getExport() {
+        return new ResponseEntity<>(exportService.getCurrent(), HttpStatus.OK);
+    }
+
+    // Where the connector supports it, the kernel copies the file straight to the socket and the body
+    // never passes through the JVM; otherwise the file is streamed as a FileSystemResource
+    @GetMapping("/file")
+    public ResponseEntity<Resource> downloadExport(HttpServletRequest request) {
+        ItemExport export = exportService.getCurrent();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(TEXT_CSV)
+                .contentLength(export.getSizeBytes())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("items.csv").build().toString());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, export.getFile().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, export.getSizeBytes());
+            return response.build();
+        }
+        return response.body(new FileSystemResource(export.getFile()));
+    }
+}
@@ -0,0 +1,104 @@
+package com.siemens.internship;
+
+import com.siemens.internship.exception.DataProcessingException;
+import com.siemens.internship.exception.ResourceNotFoundException;
+import com.siemens.internship.model.ItemExport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+
+// Exports the item table to a CSV file for bulk readers: the rows go from the database cursor to the file
+// without a DTO or a JSON tree per row, and the file is then sent as is, as often as it is downloaded.
+@Service
+public class ItemExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ItemService itemService;
+
+    private final Path directory;
+    private volatile ItemExport current; // Latest complete export, read without waiting for an export in progress
+    private ItemExport previous; // Kept until the next export, it may still be being downloaded
+
+    public ItemExportService(@Value("${item.export.directory:${java.io.tmpdir}/item-export}") Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Writes a new snapshot of every item, replacing the current one once it is complete.
+     * Exports run one at a time; the previous file stays available while a new one is written.
+     *
+     * @return The new export.
+     */
+    public synchronized ItemExport export() {
+        Instant start = Instant.now();
+        Path file = null;
+        try {
+            Files.createDirectories(directory);
+            file = Files.createTempFile(directory, "items-", ".csv");
+            long rows;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                CsvItemWriter writer = new CsvItemWriter(channel, BUFFER_SIZE);
+                writer.writeHeader();
+                itemService.forEachItem(item -> {
+                    try {
+                        writer.write(item);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                writer.flush();
+                channel.force(false);
+                rows = writer.getRows();
+            }
+            ItemExport export = new ItemExport(file, rows, Files.size(file), start,
+                    Duration.between(start, Instant.now()).toMillis());
+            replaceCurrent(export);
+            return export;
+        } catch (IOException | UncheckedIOException e) {
+            deleteQuietly(file);
+            throw new DataProcessingException("Failed to export items", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    public ItemExport getCurrent() {
+        ItemExport export = current;
+        if (export == null) {
+            throw new ResourceNotFoundException("No item export exists yet");
+        }
+        return export;
+    }
+
+    // The file before the previous one can no longer be in use by a download that started before this export
+    private void replaceCurrent(ItemExport export) {
+        if (previous != null) {
+            deleteQuietly(previous.getFile());
+        }
+        previous = current;
+        current = export;
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            // Only a leftover file in the export directory, the export itself is not affected
+        }
+    }
+}
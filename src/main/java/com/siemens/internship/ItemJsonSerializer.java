@@ -0,0 +1,57 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.siemens.internship.model.Item;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+// Hand-written JSON serializer of Item, registered with Spring's ObjectMapper, so every response containing items
+// skips Jackson's reflective bean serializer (property introspection, getter calls through accessors, per-field
+// checks). The field names are encoded once. The output is the same as the bean serializer's: same fields,
+// same order, nulls included, emailDomain left out. Keep it in sync with the fields of Item.
+@JsonComponent
+public class ItemJsonSerializer extends JsonSerializer<Item> {
+
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString DESCRIPTION = new SerializedString("description");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString EMAIL = new SerializedString("email");
+    private static final SerializableString VERSION = new SerializedString("version");
+
+    @Override
+    public void serialize(Item item, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        write(generator, item);
+    }
+
+    // Also called directly by the streaming endpoints, which then skip the serializer lookup as well
+    static void write(JsonGenerator generator, Item item) throws IOException {
+        generator.writeStartObject(item);
+        generator.writeFieldName(ID);
+        writeNumber(generator, item.getId());
+        generator.writeFieldName(NAME);
+        generator.writeString(item.getName());
+        generator.writeFieldName(DESCRIPTION);
+        generator.writeString(item.getDescription());
+        generator.writeFieldName(STATUS);
+        generator.writeString(item.getStatus());
+        generator.writeFieldName(EMAIL);
+        generator.writeString(item.getEmail());
+        generator.writeFieldName(VERSION);
+        writeNumber(generator, item.getVersion());
+        generator.writeEndObject();
+    }
+
+    private static void writeNumber(JsonGenerator generator, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value.longValue());
+        }
+    }
+}
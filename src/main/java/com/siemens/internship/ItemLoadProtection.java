@@ -0,0 +1,162 @@
+package com.siemens.internship;
+
+import com.siemens.internship.exception.ConflictException;
+import com.siemens.internship.exception.ServiceOverloadedException;
+import com.siemens.internship.exception.TooManyRequestsException;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Admission control of the write, export and processing endpoints, so that they cannot saturate the node at the expense
+// of the reads, which are never limited. A request is refused before it does any work:
+// - 429 when its endpoint is over its token bucket rate limit (item.load-protection.rate-limits.<endpoint>)
+// - 503 when too many threads already wait for a database connection, or for processing, when too many runs
+//   already wait for the pipeline
+// Both carry Retry-After. A processing run identical to one in progress is coalesced with it (single-flight)
+// instead of starting a second full pass over the table.
+@Component
+public class ItemLoadProtection {
+
+    static final String PROCESS = "process";
+    static final String WRITE = "write";
+    static final String BULK = "bulk";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    @Autowired
+    private ItemProcessingPipeline processingPipeline;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final ItemLoadProtectionProperties properties;
+    private final Map<String, TokenBucket> buckets = new HashMap<>(); // Only read after construction
+    private final Map<String, CompletableFuture<?>> runs = new ConcurrentHashMap<>(); // Processing runs in progress by key
+    private final MeterRegistry meterRegistry;
+    private final Counter coalescedRuns;
+
+    public ItemLoadProtection(ItemLoadProtectionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        properties.getRateLimits().forEach((endpoint, limit) ->
+                buckets.put(endpoint, new TokenBucket(limit.getPermitsPerSecond(), limit.getBurst())));
+        this.coalescedRuns = Counter.builder("items.load-protection.coalesced")
+                .description("Processing requests that joined an identical run in progress")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits one request to a write endpoint.
+     *
+     * @param endpoint The rate limit to take a token from (WRITE, BULK).
+     * @throws TooManyRequestsException   If the endpoint is over its rate limit.
+     * @throws ServiceOverloadedException If too many threads wait for a database connection.
+     */
+    public void admit(String endpoint) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        TokenBucket bucket = buckets.get(endpoint);
+        long waitNanos = bucket == null ? 0 : bucket.tryAcquire();
+        if (waitNanos > 0) {
+            rejected(endpoint, "rate_limited");
+            throw new TooManyRequestsException("Too many " + endpoint + " requests, try again later",
+                    (long) Math.ceil(waitNanos / NANOS_PER_SECOND));
+        }
+        int waiting = poolWaiting();
+        if (waiting > properties.getMaxPoolWaiting()) {
+            rejected(endpoint, "pool_wait");
+            throw overloaded(waiting + " requests are waiting for a database connection");
+        }
+    }
+
+    /**
+     * Admits the start of a processing run (a processing request or a processing job).
+     * Same as {@link #admit(String)} with the PROCESS rate limit, and also refused while more than
+     * item.load-protection.max-queued-runs runs wait for the pipeline.
+     */
+    public void admitProcessing() {
+        admit(PROCESS);
+        if (properties.isEnabled() && processingPipeline.queuedRuns() > properties.getMaxQueuedRuns()) {
+            rejected(PROCESS, "queue_depth");
+            throw overloaded("Too many processing runs are waiting to start");
+        }
+    }
+
+    /**
+     * Starts a processing run unless an identical one is in progress. With COALESCE the request gets the result
+     * of the run in progress, with REJECT it fails with 409. Runs with different keys are independent.
+     *
+     * @param key   Identifies identical runs, every key must always be used with the same result type.
+     * @param start Starts the run.
+     * @return The result of the new run or of the run in progress.
+     * @throws ConflictException If an identical run is in progress and overlapping runs are rejected.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> singleFlight(String key, Supplier<CompletableFuture<T>> start) {
+        if (!properties.isEnabled()) {
+            return start.get();
+        }
+        CompletableFuture<?> running = runs.get(key);
+        if (running != null) {
+            return (CompletableFuture<T>) join(key, running);
+        }
+        admitProcessing();
+        CompletableFuture<T> run = new CompletableFuture<>();
+        running = runs.putIfAbsent(key, run);
+        if (running != null) { // Another request started the same run in the meantime
+            return (CompletableFuture<T>) join(key, running);
+        }
+        try {
+            start.get().whenComplete((result, ex) -> {
+                runs.remove(key, run); // First, so that a request arriving after the completion starts a new run
+                if (ex != null) {
+                    run.completeExceptionally(ex);
+                } else {
+                    run.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            runs.remove(key, run);
+            run.completeExceptionally(e); // For the requests that joined in the meantime
+            throw e;
+        }
+        return run;
+    }
+
+    private CompletableFuture<?> join(String key, CompletableFuture<?> running) {
+        if (properties.getProcessingOverlap() == ItemLoadProtectionProperties.Overlap.REJECT) {
+            rejected(PROCESS, "overlap");
+            throw new ConflictException("The processing run " + key + " is already in progress");
+        }
+        coalescedRuns.increment();
+        return running;
+    }
+
+    // Threads blocked in the Hikari pool waiting for a connection, 0 before the pool is started
+    private int poolWaiting() {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool == null ? 0 : pool.getThreadsAwaitingConnection();
+        }
+        return 0;
+    }
+
+    private ServiceOverloadedException overloaded(String reason) {
+        return new ServiceOverloadedException("Service overloaded: " + reason + ", try again later",
+                Math.max(1, properties.getRetryAfter().toSeconds()));
+    }
+
+    private void rejected(String endpoint, String reason) {
+        meterRegistry.counter("items.load-protection.rejected", "endpoint", endpoint, "reason", reason).increment();
+    }
+}
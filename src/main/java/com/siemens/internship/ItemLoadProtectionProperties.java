@@ -0,0 +1,39 @@
+package com.siemens.internship;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+// Settings of ItemLoadProtection, bound from the item.load-protection.* properties
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "item.load-protection")
+public class ItemLoadProtectionProperties {
+
+    // COALESCE lets a processing run identical to one in progress share its result, REJECT answers it with 409
+    public enum Overlap { COALESCE, REJECT }
+
+    private boolean enabled = true;
+    private Map<String, RateLimit> rateLimits = new HashMap<>(); // By endpoint (process, write, bulk), an endpoint without one is not limited
+    private Overlap processingOverlap = Overlap.COALESCE;
+    private int maxQueuedRuns = 0; // Processing runs allowed to wait for a worker of the pipeline's fetch stage
+    private int maxPoolWaiting = 10; // Threads allowed to wait for a database connection before writes are shed
+    private Duration retryAfter = Duration.ofSeconds(1); // Sent with a 503
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class RateLimit {
+        private double permitsPerSecond; // Sustained rate
+        private int burst; // Requests allowed at once after a quiet period
+    }
+}
@@ -0,0 +1,71 @@
+package com.siemens.internship;
+
+import com.siemens.internship.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+// Times the item operations as the items.operations timer, tagged with the operation and its outcome:
+// success, not_found (an empty Optional or a ResourceNotFoundException) or failure (any other exception).
+// The count of each timer gives the success/failure/not-found counters.
+@Component
+public class ItemMetrics {
+
+    static final String OPERATIONS = "items.operations";
+
+    private final MeterRegistry registry;
+
+    public ItemMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T time(String operation, Supplier<T> call) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            T result = call.get();
+            sample.stop(timer(operation, result instanceof Optional<?> optional && optional.isEmpty() ? "not_found" : "success"));
+            return result;
+        } catch (RuntimeException e) {
+            sample.stop(timer(operation, outcome(e)));
+            throw e;
+        }
+    }
+
+    // Same as time() for operations without a result
+    public void record(String operation, Runnable call) {
+        time(operation, () -> {
+            call.run();
+            return null;
+        });
+    }
+
+    // Measures until the returned future completes, not just until the call returns
+    public <T> CompletableFuture<T> timeAsync(String operation, Supplier<CompletableFuture<T>> call) {
+        Timer.Sample sample = Timer.start(registry);
+        try {
+            return call.get().whenComplete((result, ex) ->
+                    sample.stop(timer(operation, ex == null ? "success" : outcome(ex))));
+        } catch (RuntimeException e) {
+            sample.stop(timer(operation, outcome(e)));
+            throw e;
+        }
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return Timer.builder(OPERATIONS)
+                .description("Duration of item service operations")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static String outcome(Throwable e) {
+        Throwable cause = e.getCause() != null && e instanceof CompletionException ? e.getCause() : e;
+        return cause instanceof ResourceNotFoundException ? "not_found" : "failure";
+    }
+}
@@ -0,0 +1,396 @@
+package com.siemens.internship;
+
+import com.siemens.internship.exception.DataProcessingException;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Processes the item table in chunks through bounded stages: fetch IDs -> load -> transform -> persist.
+// Every stage has its own concurrency and queue depth (see ItemProcessingProperties) and blocks its feeder
+// when full, so the work in flight never exceeds what the stages can hold, whatever the table size.
+@Component
+public class ItemProcessingPipeline {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemBatchProcessor batchProcessor;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ItemChangeFeed changeFeed;
+
+    @Autowired
+    private ItemWriteBuffer writeBuffer;
+
+    private final int chunkSize;
+    private final long simulatedWorkMillis;
+    private final Semaphore dbPermits; // Bounds how many tasks use the database at once, sized to the connection pool
+    private final AdaptiveConcurrencyLimit concurrencyLimit; // Bounds the chunks in flight through the whole pipeline
+
+    private final PipelineStage fetch;
+    private final PipelineStage load;
+    private final PipelineStage transform;
+    private final PipelineStage persist;
+
+    private final Timer loadTimer;
+    private final Timer transformTimer;
+    private final Timer persistTimer;
+    private final Counter processedItems;
+    private final Counter missingItems; // Deleted between the ID fetch and the load or persist
+    private final Counter failedItems; // Part of a chunk that failed and was rolled back
+
+    public ItemProcessingPipeline(ItemProcessingProperties properties,
+                                  @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxDbConcurrency,
+                                  MeterRegistry meterRegistry) {
+        if (properties.getChunkSize() <= 0) {
+            throw new IllegalArgumentException("item.processing.chunk-size must be positive");
+        }
+        this.chunkSize = properties.getChunkSize();
+        this.simulatedWorkMillis = properties.getSimulatedWorkMs();
+        this.dbPermits = new Semaphore(maxDbConcurrency);
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(properties.getAdaptive());
+
+        ItemProcessingProperties.ExecutorMode mode = properties.getExecutor();
+        this.fetch = new PipelineStage("fetch", properties.getFetch(), mode);
+        this.load = new PipelineStage("load", properties.getLoad(), mode);
+        this.transform = new PipelineStage("transform", properties.getTransform(), mode);
+        this.persist = new PipelineStage("persist", properties.getPersist(), mode);
+
+        this.loadTimer = stageTimer(meterRegistry, load);
+        this.transformTimer = stageTimer(meterRegistry, transform);
+        this.persistTimer = stageTimer(meterRegistry, persist);
+        this.processedItems = itemCounter(meterRegistry, "processed");
+        this.missingItems = itemCounter(meterRegistry, "not_found");
+        this.failedItems = itemCounter(meterRegistry, "failed");
+        for (PipelineStage stage : List.of(fetch, load, transform, persist)) {
+            Gauge.builder("items.processing.stage.active", stage, PipelineStage::active)
+                    .description("Tasks running in the stage")
+                    .tag("stage", stage.name())
+                    .register(meterRegistry);
+            Gauge.builder("items.processing.stage.queued", stage, PipelineStage::queued)
+                    .description("Tasks waiting for a worker of the stage")
+                    .tag("stage", stage.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("items.processing.db.waiting", dbPermits, Semaphore::getQueueLength)
+                .description("Processing tasks waiting for a database permit")
+                .register(meterRegistry);
+        Gauge.builder("items.processing.concurrency.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                .description("Current adaptive limit of chunks in flight")
+                .register(meterRegistry);
+        Gauge.builder("items.processing.concurrency.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                .description("Chunks currently in flight")
+                .register(meterRegistry);
+    }
+
+    private static Timer stageTimer(MeterRegistry registry, PipelineStage stage) {
+        return Timer.builder("items.processing.stage")
+                .description("Time a chunk spends running in a processing stage")
+                .tag("stage", stage.name())
+                .register(registry);
+    }
+
+    private static Counter itemCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("items.processing.items")
+                .description("Items handled by processing runs")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    // ALL processes every item, PENDING only the items not PROCESSED yet (read through the status index),
+    // so that repeated runs cost time proportional to what changed rather than to the table size
+    public enum Scope { ALL, PENDING }
+
+    // Receives the outcome of every chunk of a run. The callbacks of one run may be invoked from several threads.
+    public interface ChunkListener<T> {
+
+        // Called in ID order from the fetch stage, before the chunk enters the pipeline
+        default void onChunkSubmitted(List<Long> ids) {
+        }
+
+        void onChunkProcessed(List<Long> ids, List<T> results);
+
+        // A failed chunk is rolled back as a whole, none of its items were processed
+        void onChunkFailed(List<Long> ids, Throwable cause);
+
+        // Checked before every chunk is submitted: once true, no further chunk is fed into the pipeline and the run
+        // ends when the chunks already in flight are done
+        default boolean isStopped() {
+            return false;
+        }
+    }
+
+    /**
+     * Loads, marks PROCESSED and saves every item, chunk by chunk.
+     * The transform stage holds no database connection, so slow per-item work never starves the pool.
+     *
+     * @param scope Which items to process.
+     * @return A future with the ID and new status of every successfully processed item, once all chunks are done.
+     */
+    public CompletableFuture<List<ItemStatus>> processAll(Scope scope) {
+        // Only the projections are kept until the end, the processed entities can be collected chunk by chunk
+        return collect(listener -> processAll(scope, 0L, mapping(listener,
+                item -> new ItemStatus(item.getId(), item.getStatus()))));
+    }
+
+    /**
+     * Same as {@link #processAll(Scope)}, but starting after the given ID and reporting every chunk to the listener
+     * instead of collecting the items, so that memory does not grow with the table.
+     *
+     * @param scope    Which items to process.
+     * @param afterId  Only items with a greater ID are processed (0 for all of them).
+     * @param listener Notified when a chunk is done, before the returned future completes.
+     * @return A future completed once every chunk was handled.
+     */
+    public CompletableFuture<Void> processAll(Scope scope, Long afterId, ChunkListener<Item> listener) {
+        return processRange(scope, afterId, null, listener);
+    }
+
+    /**
+     * Same as {@link #processAll(Scope, Long, ChunkListener)}, limited to the items with afterId < id <= toId.
+     * Used to process one partition of the table.
+     *
+     * @param scope    Which items to process.
+     * @param afterId  Only items with a greater ID are processed.
+     * @param toId     Only items with an ID up to this one are processed, null for no upper bound.
+     * @param listener Notified when a chunk is done, before the returned future completes. Can stop the run.
+     * @return A future completed once every chunk was handled, or once the chunks in flight are done if the listener stopped the run.
+     */
+    public CompletableFuture<Void> processRange(Scope scope, Long afterId, Long toId, ChunkListener<Item> listener) {
+        return run(scope, afterId, toId, listener, ids -> load.submit(
+                        () -> loadTimer.record(() -> withDbPermit(() -> loadChunk(ids))))
+                .thenCompose(items -> transform.submit(
+                        () -> transformTimer.record(() -> transformChunk(items))))
+                .thenCompose(items -> persist.submit(
+                        () -> persistTimer.record(() -> invalidatingCache(ids, () -> publishing(batchProcessor.persistChunk(items)))))));
+    }
+
+    /**
+     * Set-based variant of {@link #processAll(Scope)}: every chunk is marked PROCESSED with one bulk UPDATE
+     * in the persist stage, without ever loading an entity.
+     *
+     * @param scope Which items to process.
+     * @return A future with the IDs of every processed item, once all chunks are done.
+     */
+    public CompletableFuture<List<Long>> markAllProcessed(Scope scope) {
+        return collect(listener -> run(scope, 0L, null, listener,
+                ids -> persist.submit(() -> persistTimer.record(() -> invalidatingCache(ids, () -> {
+                    writeBuffer.flush(ids); // Otherwise a buffered update would overwrite the new status later
+                    return publishingProcessed(batchProcessor.markChunkProcessed(ids));
+                })))));
+    }
+
+    // Adapts a listener to the results of another type
+    private static <T, R> ChunkListener<T> mapping(ChunkListener<R> listener, Function<T, R> mapper) {
+        return new ChunkListener<>() {
+            @Override
+            public void onChunkSubmitted(List<Long> ids) {
+                listener.onChunkSubmitted(ids);
+            }
+
+            @Override
+            public void onChunkProcessed(List<Long> ids, List<T> results) {
+                listener.onChunkProcessed(ids, results.stream().map(mapper).toList());
+            }
+
+            @Override
+            public void onChunkFailed(List<Long> ids, Throwable cause) {
+                listener.onChunkFailed(ids, cause);
+            }
+
+            @Override
+            public boolean isStopped() {
+                return listener.isStopped();
+            }
+        };
+    }
+
+    // Runs the pipeline with a listener gathering the results of every successful chunk
+    private static <T> CompletableFuture<List<T>> collect(Function<ChunkListener<T>, CompletableFuture<Void>> runner) {
+        List<T> results = Collections.synchronizedList(new ArrayList<>());
+        ChunkListener<T> collector = new ChunkListener<>() {
+            @Override
+            public void onChunkProcessed(List<Long> ids, List<T> chunkResults) {
+                results.addAll(chunkResults);
+            }
+
+            @Override
+            public void onChunkFailed(List<Long> ids, Throwable cause) {
+                // Nothing to collect, failed items are simply not part of the result
+            }
+        };
+        return runner.apply(collector).thenApply(voidResult -> new ArrayList<>(results));
+    }
+
+    // Reads the IDs in the fetch stage and feeds every chunk to chunkPipeline.
+    // Completion is tracked with a counter of unfinished chunks, so no per-chunk state outlives its chunk
+    private <T> CompletableFuture<Void> run(Scope scope, Long afterId, Long toId, ChunkListener<T> listener,
+                                            Function<List<Long>, CompletableFuture<List<T>>> chunkPipeline) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(1); // Counts the fetch task too, so the run cannot end before every chunk was submitted
+        Runnable finishOne = () -> {
+            if (pending.decrementAndGet() == 0) {
+                done.complete(null);
+            }
+        };
+
+        fetch.submit(() -> {
+            List<Long> chunk = nextChunk(scope, afterId, toId);
+            while (!chunk.isEmpty() && !listener.isStopped()) {
+                List<Long> ids = chunk;
+                concurrencyLimit.acquire(); // Waits while the adaptive limit of chunks in flight is reached
+                listener.onChunkSubmitted(ids);
+                pending.incrementAndGet();
+                long startedAt = System.nanoTime();
+                CompletableFuture<List<T>> chunkResult;
+                try {
+                    // Submitting blocks while the first stage is full, so IDs are only read as fast as the pipeline drains them
+                    chunkResult = chunkPipeline.apply(ids);
+                } catch (RuntimeException e) {
+                    concurrencyLimit.release(System.nanoTime() - startedAt, true);
+                    throw e;
+                }
+                chunkResult.whenComplete((results, ex) -> {
+                    concurrencyLimit.release(System.nanoTime() - startedAt, ex != null);
+                    try {
+                        if (ex == null) {
+                            processedItems.increment(results.size());
+                            missingItems.increment(ids.size() - results.size());
+                            listener.onChunkProcessed(ids, results);
+                        } else {
+                            failedItems.increment(ids.size());
+                            listener.onChunkFailed(ids, ex);
+                        }
+                    } catch (RuntimeException listenerFailure) {
+                        done.completeExceptionally(listenerFailure);
+                    } finally {
+                        finishOne.run();
+                    }
+                });
+                chunk = nextChunk(scope, ids.get(ids.size() - 1), toId); // The keyset position is the watermark of the run
+            }
+            return null;
+        }).whenComplete((voidResult, ex) -> {
+            if (ex != null) {
+                done.completeExceptionally(ex);
+            } else {
+                finishOne.run();
+            }
+        });
+        return done;
+    }
+
+    // Buffered updates of the chunk are written first, so the processed items start from them
+    // and a buffered update flushed later cannot overwrite the new status with an older one
+    private List<Item> loadChunk(List<Long> ids) {
+        writeBuffer.flush(ids);
+        return batchProcessor.loadChunk(ids);
+    }
+
+    private List<Long> nextChunk(Scope scope, Long lastId, Long toId) {
+        PageRequest page = PageRequest.of(0, chunkSize);
+        if (toId != null) {
+            return withDbPermit(() -> scope == Scope.PENDING
+                    ? itemRepository.findPendingIdsInRange(lastId, toId, page)
+                    : itemRepository.findIdsInRange(lastId, toId, page));
+        }
+        return withDbPermit(() -> scope == Scope.PENDING
+                ? itemRepository.findPendingIdsAfter(lastId, page)
+                : itemRepository.findIdsAfter(lastId, page));
+    }
+
+    // The per-item work runs in parallel over the transform threads, so a chunk takes about
+    // items * work / threads instead of items * work, and a few chunks in flight already keep every thread busy
+    private List<Item> transformChunk(List<Item> items) {
+        transform.forEach(items, item -> {
+            simulateWork();
+            item.setStatus("PROCESSED");
+        });
+        return items;
+    }
+
+    private void simulateWork() {
+        if (simulatedWorkMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(simulatedWorkMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataProcessingException("Processing was interrupted", e);
+        }
+    }
+
+    // Runs a write of the chunk and then drops its items from the item cache, once the transaction is committed
+    private <T> T invalidatingCache(List<Long> ids, Supplier<T> write) {
+        try {
+            return withDbPermit(write);
+        } finally {
+            itemCache.invalidateAll(ids); // Also on failure, the chunk may have been partially written before the error
+        }
+    }
+
+    // Appends the committed status changes of a chunk to the change feed
+    private List<Item> publishing(List<Item> items) {
+        changeFeed.statusChanged(items);
+        return items;
+    }
+
+    private List<Long> publishingProcessed(List<Long> ids) {
+        changeFeed.statusChanged(ids, "PROCESSED");
+        return ids;
+    }
+
+    // Waits for a free database permit before running the task, so that the number of
+    // concurrent database tasks never exceeds the connection pool, whatever the stage settings
+    private <T> T withDbPermit(Supplier<T> task) {
+        long waitStart = System.nanoTime();
+        try {
+            dbPermits.acquire();
+            concurrencyLimit.recordPoolWait(System.nanoTime() - waitStart);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataProcessingException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            return task.get();
+        } finally {
+            dbPermits.release();
+        }
+    }
+
+    // Runs submitted but still waiting for a worker of the fetch stage, which reads the IDs of one run at a time
+    public int queuedRuns() {
+        return fetch.queued();
+    }
+
+    // Gracefully stops the stage threads during Spring context shutdown
+    @PreDestroy
+    public void shutdown() {
+        fetch.shutdown();
+        load.shutdown();
+        transform.shutdown();
+        persist.shutdown();
+    }
+}
@@ -0,0 +1,56 @@
+package com.siemens.internship;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+// Settings of the item processing pipeline, bound from the item.processing.* properties
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "item.processing")
+public class ItemProcessingProperties {
+
+    // FIXED runs every stage on a pool of platform threads sized to its concurrency,
+    // VIRTUAL starts one virtual thread per task (and per item in the transform stage) so blocked tasks do not hold
+    // an OS thread; the stages are then bounded by their concurrency + queue depth and the database permits
+    public enum ExecutorMode { FIXED, VIRTUAL }
+
+    private int chunkSize = 500; // Number of items loaded, transformed and saved together
+    private ExecutorMode executor = ExecutorMode.FIXED;
+    private long simulatedWorkMs = 100; // Simulated per-item work of the transform stage, the original implementation slept 100 ms
+
+    // Every stage runs at most `concurrency` chunks at once and lets at most `queueDepth` more wait
+    private Stage fetch = new Stage(2, 2); // Reads the IDs, one task per processing run
+    private Stage load = new Stage(4, 4);
+    private Stage transform = new Stage(10, 10);
+    private Stage persist = new Stage(4, 4);
+
+    // Limit of chunks in flight through the whole pipeline, adjusted at runtime (see AdaptiveConcurrencyLimit)
+    private Adaptive adaptive = new Adaptive();
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Stage {
+        private int concurrency;
+        private int queueDepth;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    public static class Adaptive {
+        private boolean enabled = true; // When false the limit stays at initialLimit
+        private int initialLimit = 4;
+        private int minLimit = 1;
+        private int maxLimit = 32;
+        private double backoffRatio = 0.9; // The limit is multiplied by this on congestion
+        private double latencyTolerance = 2.0; // A chunk slower than this times the baseline latency counts as congestion
+        private long poolWaitThresholdMs = 50; // So does waiting longer than this for a database connection
+    }
+}
@@ -1,14 +1,90 @@
 package com.siemens.internship;
 
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemTableRevision;
+import com.siemens.internship.model.ItemTableVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 // Interface for Repository that implements all CRUD functionalities that come with JpaRepository ( for entity: Item and primary key: Long)
-// additionally it adds findAllIds() method
-public interface ItemRepository extends JpaRepository<Item, Long> {
+// additionally it adds findAllIds() method, and the search of ItemSearchRepository
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemSearchRepository {
+    // Query-cached: repeated scans are served from memory until an Item write invalidates the Item table space
     @Query("SELECT id FROM Item")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<Long> findAllIds();
+
+    // Fingerprint of the table behind the collection ETag: a primary key read of the revision row shared by all nodes,
+    // null until the row exists. Never query-cached: the query cache is node-local, so a write on another node would
+    // leave the ETag stale and its pollers would keep getting 304 for a changed collection
+    @Query("SELECT new com.siemens.internship.model.ItemTableVersion(r.revision) FROM ItemTableRevision r " +
+            "WHERE r.id = " + ItemTableRevision.ID)
+    ItemTableVersion findTableVersion();
+
+    // Entity writes increment the revision on their own (ItemTableRevisionIntegrator), the JPQL bulk statements on Item
+    // call this in their transaction
+    @Modifying
+    @Query(ItemTableRevisionIntegrator.INCREMENT)
+    int incrementTableRevision();
+
+    // Keyset paging over the IDs: returns the next page of IDs strictly greater than afterId, in ascending order.
+    // Only the page size of the Pageable is relevant, it is always requested as page 0.
+    @Query("SELECT i.id FROM Item i WHERE i.id > :afterId ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Same as findIdsAfter but only for items that are not PROCESSED yet: a range scan of the (pending, id) index
+    // that never touches the processed rows, so a repeated run costs time proportional to what changed since
+    @Query("SELECT i.id FROM Item i WHERE i.pending = true AND i.id > :afterId ORDER BY i.id")
+    List<Long> findPendingIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Range variants of the two queries above, for processing one partition (afterId, toId] of the table
+    @Query("SELECT i.id FROM Item i WHERE i.id > :afterId AND i.id <= :toId ORDER BY i.id")
+    List<Long> findIdsInRange(@Param("afterId") Long afterId, @Param("toId") Long toId, Pageable pageable);
+
+    @Query("SELECT i.id FROM Item i WHERE i.pending = true AND i.id > :afterId AND i.id <= :toId ORDER BY i.id")
+    List<Long> findPendingIdsInRange(@Param("afterId") Long afterId, @Param("toId") Long toId, Pageable pageable);
+
+    @Query("SELECT COUNT(i) FROM Item i WHERE i.pending = true")
+    long countPending();
+
+    // Keyset paging over the items: the next `limit` items after afterId, served from the primary key index,
+    // so every page costs the same no matter how deep into the table it is
+    List<Item> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Streams every item through a JDBC cursor instead of materialising the whole table. Must be consumed inside
+    // a transaction. The columns are selected into plain Item objects (a constructor projection), not managed
+    // entities, so nothing is registered in the persistence context or the second-level cache per row.
+    @Query("SELECT new com.siemens.internship.model.Item(i.id, i.name, i.description, i.status, i.email, i.version) " +
+            "FROM Item i ORDER BY i.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<Item> streamAll();
+
+    @Query("SELECT i.id FROM Item i WHERE i.id IN :ids ORDER BY i.id")
+    List<Long> findExistingIds(@Param("ids") List<Long> ids);
+
+    // Set-based status update: a single UPDATE statement, no entity is loaded, dirty checked or saved one by one.
+    // The persistence context is flushed before and cleared after, so it never holds stale statuses.
+    // The version is incremented like for any other update, so a concurrent versioned write notices the change.
+    default int updateStatusByIds(List<Long> ids, String status) {
+        int updated = updateStatusByIds(ids, status, Item.isPendingStatus(status));
+        if (updated > 0) {
+            incrementTableRevision();
+        }
+        return updated;
+    }
+
+    // The pending flag is written with the status, like Item.setStatus does for a managed entity
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Item i SET i.status = :status, i.pending = :pending, i.version = i.version + 1 WHERE i.id IN :ids")
+    int updateStatusByIds(@Param("ids") List<Long> ids, @Param("status") String status, @Param("pending") boolean pending);
 }
@@ -0,0 +1,21 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.ItemSummary;
+
+import java.util.List;
+
+// Custom fragment of ItemRepository for the search, whose WHERE clause depends on the filters that are given
+public interface ItemSearchRepository {
+
+    /**
+     * Returns the next items matching every given filter, in ascending ID order.
+     *
+     * @param status      The exact status, or null for any.
+     * @param emailDomain The lower-case domain of the email, or null for any.
+     * @param namePrefix  The start of the name (case-sensitive), or null for any.
+     * @param afterId     Only items with a greater ID are returned.
+     * @param limit       The maximum number of items returned.
+     * @return The matching items.
+     */
+    List<ItemSummary> search(String status, String emailDomain, String namePrefix, Long afterId, int limit);
+}
@@ -0,0 +1,53 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.ItemSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+// Only the filters that are given end up in the query, so the database can pick the index of the most selective one
+// ((status, id), (email_domain, id) or (name, id)) instead of a plan that has to work for any combination of NULLs
+class ItemSearchRepositoryImpl implements ItemSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ItemSummary> search(String status, String emailDomain, String namePrefix, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.siemens.internship.model.ItemSummary(i.id, i.name, i.status, i.email) " +
+                        "FROM Item i WHERE i.id > :afterId");
+        if (status != null) {
+            jpql.append(" AND i.status = :status");
+        }
+        if (emailDomain != null) {
+            jpql.append(" AND i.emailDomain = :emailDomain");
+        }
+        if (namePrefix != null) {
+            jpql.append(" AND i.name LIKE :namePattern ESCAPE '!'");
+        }
+        jpql.append(" ORDER BY i.id");
+
+        TypedQuery<ItemSummary> query = entityManager.createQuery(jpql.toString(), ItemSummary.class)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (emailDomain != null) {
+            query.setParameter("emailDomain", emailDomain);
+        }
+        if (namePrefix != null) {
+            query.setParameter("namePattern", escapeLike(namePrefix) + "%");
+        }
+        return query.getResultList();
+    }
+
+    // The prefix is matched literally, its own % and _ are not wildcards ('!' as the escape character,
+    // since a backslash would also have to be escaped inside the HQL string literal)
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+    }
+}
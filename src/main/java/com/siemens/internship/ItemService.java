@@ -1,20 +1,43 @@
 package com.siemens.internship;
 
+import com.siemens.internship.exception.ConflictException;
 import com.siemens.internship.exception.DataProcessingException;
+import com.siemens.internship.exception.InvalidRequestException;
+import com.siemens.internship.exception.PreconditionFailedException;
 import com.siemens.internship.exception.ResourceNotFoundException;
+import com.siemens.internship.model.HibernateCacheStats;
 import com.siemens.internship.model.Item;
-import jakarta.annotation.PreDestroy;
+import com.siemens.internship.model.ItemCacheStats;
+import com.siemens.internship.model.ItemPage;
+import com.siemens.internship.model.ItemSearchPage;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.model.ItemSummary;
+import com.siemens.internship.model.ItemTextHit;
+import com.siemens.internship.model.ItemTableRevision;
+import com.siemens.internship.model.ItemTableVersion;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ItemService {
@@ -22,18 +45,198 @@ public class ItemService {
     @Autowired
     private ItemRepository itemRepository;
 
-    private final ExecutorService executor; // Used to run asynchronous tasks.
+    @Autowired
+    private ItemProcessingPipeline processingPipeline;
 
-    public ItemService(@Value("${item.processing.threads:10}") int threadCount) {
-        this.executor = Executors.newFixedThreadPool(threadCount);
-    }
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ItemMetrics itemMetrics;
+
+    @Autowired
+    private ItemChangeFeed changeFeed;
+
+    @Autowired
+    private ItemTextIndex textIndex;
+
+    @Autowired
+    private ItemWriteBuffer writeBuffer;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_UPDATE_ATTEMPTS = 3;
 
     public List<Item> findAll() {
-        return itemRepository.findAll();
+        return itemMetrics.time("findAll", () -> itemRepository.findAll());
+    }
+
+    /**
+     * Hands every item to the given action one at a time, reading them through a database cursor.
+     * The items are plain objects rather than managed entities, so the persistence context (and the heap)
+     * stays the same size no matter how many rows the table has.
+     *
+     * @param action Called once per item, in ascending ID order.
+     */
+    @Transactional(readOnly = true)
+    public void forEachItem(Consumer<Item> action) {
+        try (Stream<Item> items = itemRepository.streamAll()) {
+            items.forEach(action);
+        }
+    }
+
+    /**
+     * Returns the fingerprint of the item table, which changes with every write to it.
+     * Backs the ETag of the collection so that unchanged polls are answered with 304 without reading any item.
+     *
+     * The revision row is created by the first call; writes before it need no revision since no ETag was handed out.
+     *
+     * @return The current fingerprint.
+     */
+    public ItemTableVersion getTableVersion() {
+        return itemMetrics.time("tableVersion", () -> {
+            ItemTableVersion version = itemRepository.findTableVersion();
+            if (version != null) {
+                return version;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> entityManager.persist(
+                        new ItemTableRevision(ItemTableRevision.ID, System.currentTimeMillis())));
+            } catch (DataIntegrityViolationException e) {
+                // Created by another node in the meantime
+            }
+            return itemRepository.findTableVersion();
+        });
     }
 
+    /**
+     * Returns one page of items ordered by ID, starting after the position encoded in the cursor.
+     * One extra item is fetched to know whether another page follows, without a count query.
+     *
+     * @param cursor The nextCursor of the previous page, or null for the first page.
+     * @param limit  The maximum number of items in the page.
+     * @return The page, with a nextCursor only if more items follow.
+     */
+    public ItemPage findPage(String cursor, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Long afterId = cursor == null ? 0L : decodeCursor(cursor);
+
+        List<Item> items = itemMetrics.time("findPage",
+                () -> itemRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit + 1)));
+        if (items.size() <= limit) {
+            return new ItemPage(items, null);
+        }
+        List<Item> page = items.subList(0, limit);
+        return new ItemPage(page, encodeCursor(page.get(limit - 1).getId()));
+    }
+
+    /**
+     * Searches the items matching every given filter, as summaries in keyset pages ordered by ID.
+     * Every filter is served by an index, so a page costs an index range scan rather than a table scan.
+     *
+     * @param status      The exact status, or null for any.
+     * @param emailDomain The domain of the email ("example.com", case-insensitive), or null for any.
+     * @param namePrefix  The start of the name (case-sensitive), or null for any.
+     * @param cursor      The nextCursor of the previous page, or null for the first page.
+     * @param limit       The maximum number of items in the page.
+     * @return The page, with a nextCursor only if more items follow.
+     */
+    public ItemSearchPage search(String status, String emailDomain, String namePrefix, String cursor, int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Long afterId = cursor == null ? 0L : decodeCursor(cursor);
+        // Normalised like Item.emailDomain, "@example.com" and a full address are accepted as well
+        String domain = emailDomain == null || emailDomain.isBlank() ? null : Item.domainOf("@" + emailDomain.trim());
+
+        List<ItemSummary> items = itemMetrics.time("search", () -> itemRepository.search(
+                blankToNull(status), domain, blankToNull(namePrefix), afterId, limit + 1));
+        if (items.size() <= limit) {
+            return new ItemSearchPage(items, null);
+        }
+        List<ItemSummary> page = items.subList(0, limit);
+        return new ItemSearchPage(page, encodeCursor(page.get(limit - 1).getId()));
+    }
+
+    /**
+     * Full-text search over the name and description of the items, ranked by relevance (BM25, with the name
+     * weighing more). The hits come from the in-memory index, the items themselves from the item cache.
+     *
+     * @param query The keywords, all of which must appear (case-insensitive, whole words).
+     * @param limit The maximum number of hits.
+     * @return The hits, best first.
+     */
+    public List<ItemTextHit> searchText(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("q must not be blank");
+        }
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return itemMetrics.time("searchText", () -> {
+            List<ItemTextHit> hits = new ArrayList<>();
+            for (InvertedIndex.Hit hit : textIndex.search(query, limit)) {
+                // An item deleted since the search is simply left out
+                itemCache.get(hit.itemId(), itemRepository::findById)
+                        .ifPresent(item -> hits.add(new ItemTextHit(item, hit.score())));
+            }
+            return hits;
+        });
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    // The cursor is the last returned ID, Base64 encoded so that clients treat it as opaque
+    private static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(lastId.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) { // Also covers NumberFormatException
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Read-through: served from the item cache, the database is only hit on a miss.
+    // An update still in the write-behind buffer wins over both, so a client always reads its own writes
     public Optional<Item> findById(Long id) {
-        return itemRepository.findById(id);
+        return itemMetrics.time("findById", () -> {
+            Item buffered = writeBuffer.get(id);
+            return buffered != null ? Optional.of(buffered) : itemCache.get(id, itemRepository::findById);
+        });
+    }
+
+    public ItemCacheStats getCacheStats() {
+        return itemCache.stats();
+    }
+
+    // Hit ratios of the Item second-level cache region and of the query cache
+    public HibernateCacheStats getHibernateCacheStats() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        CacheRegionStatistics itemRegion = statistics.getDomainDataRegionStatistics(Item.CACHE_REGION); // null when the cache is disabled
+        long itemHits = itemRegion == null ? 0 : itemRegion.getHitCount();
+        long itemMisses = itemRegion == null ? 0 : itemRegion.getMissCount();
+        long itemPuts = itemRegion == null ? 0 : itemRegion.getPutCount();
+        long queryHits = statistics.getQueryCacheHitCount();
+        long queryMisses = statistics.getQueryCacheMissCount();
+        return new HibernateCacheStats(itemHits, itemMisses, itemPuts, ratio(itemHits, itemMisses),
+                queryHits, queryMisses, statistics.getQueryCachePutCount(), ratio(queryHits, queryMisses));
+    }
+
+    private static double ratio(long hits, long misses) {
+        return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
     }
 
     public boolean existsById(Long id) {
@@ -41,91 +244,169 @@ public class ItemService {
     }
 
     public Item save(Item item) {
-        try {
-            return itemRepository.save(item);
-        } catch (DataAccessException e) {
-            throw new DataProcessingException("Failed to save item", e);
-        }
+        return itemMetrics.time("save", () -> {
+            try {
+                // Decided like Spring Data's isNew for a versioned entity: without a version the item is inserted
+                boolean created = item.getVersion() == null;
+                if (!created) {
+                    writeBuffer.discard(List.of(item.getId())); // Overwritten by this newer write
+                }
+                Item saved = itemRepository.save(item);
+                itemCache.put(saved);
+                if (created) {
+                    changeFeed.created(List.of(saved));
+                } else {
+                    changeFeed.updated(List.of(saved));
+                }
+                return saved;
+            } catch (DataAccessException e) {
+                throw new DataProcessingException("Failed to save item", e);
+            }
+        });
     }
 
-    public void deleteById(Long id) {
-        if (!itemRepository.existsById(id)) {
+    /**
+     * Overwrites an item in one guarded step: the current row is read (from the second-level cache when it is enabled)
+     * and written back with an UPDATE checking its version, instead of checking existence and then saving.
+     * An unconditional update that loses a race with another writer is retried on the new version;
+     * a conditional one fails instead, since the version it was based on is gone.
+     * <p>
+     * In write-behind mode (item.write-behind.enabled) an unconditional update is only buffered, see
+     * {@link ItemWriteBuffer}: the item is returned without a version, which it only gets once the update is flushed,
+     * so a caller that needs the new version (e.g. for a later conditional update) must pass writeBehind = false.
+     * A conditional update first flushes what is buffered for the item, so the version it checks is current.
+     *
+     * @param id              The ID of the item.
+     * @param changes         The new values (the ID and version in it are ignored).
+     * @param expectedVersion The version the client based the change on (If-Match), or null for unconditional.
+     * @param writeBehind     false to write an unconditional update directly even in write-behind mode.
+     * @return The updated item with its new version, or without a version if the update was buffered.
+     * @throws ResourceNotFoundException   If the item does not exist.
+     * @throws PreconditionFailedException If the item's version is not expectedVersion.
+     * @throws ConflictException           If concurrent updates kept winning for {@link #MAX_UPDATE_ATTEMPTS} attempts.
+     */
+    public Item update(Long id, Item changes, Long expectedVersion, boolean writeBehind) {
+        return itemMetrics.time("update", () -> {
+            if (expectedVersion == null && writeBehind && writeBuffer.isEnabled()) {
+                Item buffered = updateBehind(id, changes);
+                if (buffered != null) {
+                    return buffered;
+                }
+                // The buffer is full, written directly instead
+            }
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    writeBuffer.flush(List.of(id));
+                    Item updated = transactionTemplate.execute(status -> applyUpdate(id, changes, expectedVersion));
+                    itemCache.put(updated);
+                    changeFeed.updated(List.of(updated));
+                    return updated;
+                } catch (OptimisticLockingFailureException e) {
+                    itemCache.invalidate(id);
+                    if (expectedVersion != null) {
+                        throw new PreconditionFailedException("Item " + id + " was modified concurrently");
+                    }
+                    if (attempt == MAX_UPDATE_ATTEMPTS) {
+                        throw new ConflictException("Item " + id + " is being modified concurrently, try again");
+                    }
+                } catch (DataAccessException e) {
+                    throw new DataProcessingException("Failed to update item with id: " + id, e);
+                }
+            }
+        });
+    }
+
+    // Same as update(id, changes, expectedVersion, true): buffered in write-behind mode
+    public Item update(Long id, Item changes, Long expectedVersion) {
+        return update(id, changes, expectedVersion, true);
+    }
+
+    // Only checks that the item exists, the flusher writes the update later. Returns null if the buffer is full
+    private Item updateBehind(Long id, Item changes) {
+        if (findById(id).isEmpty()) {
             throw new ResourceNotFoundException("Item not found with id: " + id);
         }
-        try {
-            itemRepository.deleteById(id);
-        } catch (DataAccessException e) {
-            throw new DataProcessingException("Failed to delete item with id: " + id, e);
+        Item buffered = new Item(id, changes.getName(), changes.getDescription(), changes.getStatus(),
+                changes.getEmail(), null);
+        return writeBuffer.offer(buffered) ? buffered : null;
+    }
+
+    // The version check happens on flush: UPDATE ... WHERE id = ? AND version = ?
+    private Item applyUpdate(Long id, Item changes, Long expectedVersion) {
+        Item current = itemRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Item not found with id: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new PreconditionFailedException("Item " + id + " has version " + current.getVersion()
+                    + ", not " + expectedVersion);
         }
+        current.setName(changes.getName());
+        current.setDescription(changes.getDescription());
+        current.setStatus(changes.getStatus());
+        current.setEmail(changes.getEmail());
+        itemRepository.flush(); // Increments the version before the item is returned
+        return current;
+    }
+
+    public void deleteById(Long id) {
+        itemMetrics.record("deleteById", () -> {
+            if (!itemRepository.existsById(id)) {
+                throw new ResourceNotFoundException("Item not found with id: " + id);
+            }
+            try {
+                writeBuffer.discard(List.of(id));
+                itemRepository.deleteById(id);
+                itemCache.invalidate(id);
+                changeFeed.deleted(List.of(id));
+            } catch (DataAccessException e) {
+                throw new DataProcessingException("Failed to delete item with id: " + id, e);
+            }
+        });
     }
 
     /**
-     * Original implementation had several issues:
-     * 1. Returned incomplete results
-     * 2. Thread safety violations
-     * 3. Poor error handling
-     * 4. Risky sleep interruption
+     * Processes every item in chunks instead of one task per item.
+     * The chunks flow through the bounded stages of {@link ItemProcessingPipeline}
+     * (fetch IDs, load, transform, persist), so the work in flight stays bounded on any table size
+     * and each chunk costs one query to load and one batched transaction to save.
+     *
+     * @return A future with the ID and new status of every successfully processed item, once all chunks are done.
      */
     @Async // Spring's @Async ensures this method call is executed asynchronously
-    public CompletableFuture<List<Item>> processItemsAsync() {
-        List<Long> itemIds = itemRepository.findAllIds();
-
-        // Create a list of CompletableFuture, each representing the processing of a single item
-        List<CompletableFuture<Item>> futures = itemIds.stream()
-                .map(id -> CompletableFuture.supplyAsync(() -> processSingleItem(id), executor))
-                .toList();
-
-        // Return a CompletableFuture that completes when all tasks are done
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(voidResult ->
-                        // Collect the results from all completed futures
-                        // Filter out nulls, which represent items that were not found or failed to process
-                        futures.stream()
-                                .map(future -> {
-                                    try {
-                                        return future.join(); // .get() can throw InterruptedException or ExecutionException
-                                    } catch (Exception e) {
-                                        return null; // Treat as a failed item
-                                    }
-                                })
-                                .filter(Objects::nonNull) // Filter out items that failed processing (returned as null)
-                                .collect(Collectors.toList())
-                );
+    public CompletableFuture<List<ItemStatus>> processItemsAsync() {
+        return processItemsAsync(false);
     }
 
     /**
-     * Processes a single item: fetches, updates status, simulates work, and saves.
+     * Same as {@link #processItemsAsync()}, optionally limited to the items that are not PROCESSED yet.
      *
-     * @param id The ID of the item to process.
-     * @return The processed Item if successful, or null if the item was not found or an error occurred.
+     * @param pendingOnly true to skip the items that are already PROCESSED, so that a repeated run
+     *                    only costs time proportional to the items that changed since.
+     * @return A future with the ID and new status of every successfully processed item, once all chunks are done.
      */
-    private Item processSingleItem(Long id) {
-        try {
-            Thread.sleep(100);
-
-            Optional<Item> itemOptional = itemRepository.findById(id);
-            if (itemOptional.isEmpty()) {
-                return null; // Item not found, cannot process
-            }
-
-            Item item = itemOptional.get();
-            item.setStatus("PROCESSED");
-            Item savedItem = itemRepository.save(item); // Save the item and get the entity
+    @Async
+    public CompletableFuture<List<ItemStatus>> processItemsAsync(boolean pendingOnly) {
+        return itemMetrics.timeAsync("processItems", () -> processingPipeline.processAll(scope(pendingOnly)));
+    }
 
-            return savedItem;
+    /**
+     * Set-based variant of {@link #processItemsAsync()} for when processing only changes the status.
+     * Each chunk is marked PROCESSED with a single bulk UPDATE, so no entity is ever loaded,
+     * and only the IDs are returned instead of full items.
+     *
+     * @return A future with the IDs of every processed item, once all chunks are done.
+     */
+    @Async
+    public CompletableFuture<List<Long>> markAllProcessedAsync() {
+        return markAllProcessedAsync(false);
+    }
 
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            return null;
-        } catch (Exception e) {
-            return null; // Indicate failure for this item
-        }
+    @Async
+    public CompletableFuture<List<Long>> markAllProcessedAsync(boolean pendingOnly) {
+        return itemMetrics.timeAsync("markAllProcessed", () -> processingPipeline.markAllProcessed(scope(pendingOnly)));
     }
 
-    // Gracefully stops thread pool during Spring context shutdown
-    @PreDestroy
-    public void shutdownExecutor() {
-        executor.shutdown();
+    private static ItemProcessingPipeline.Scope scope(boolean pendingOnly) {
+        return pendingOnly ? ItemProcessingPipeline.Scope.PENDING : ItemProcessingPipeline.Scope.ALL;
     }
 
 }
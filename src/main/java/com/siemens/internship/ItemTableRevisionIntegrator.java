@@ -0,0 +1,84 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+// Increments ItemTableRevision once in every transaction that inserts, updates or deletes an Item entity, whatever
+// the write path (service, bulk chunks, processing, write-behind). The increment runs right before the commit,
+// after the flush, so the revision row is only locked for the end of the transaction and the JDBC batches of the
+// item rows are kept. JPQL bulk statements on Item fire no entity events; their callers increment the revision
+// themselves (ItemRepository.incrementTableRevision).
+// Registered through META-INF/services, so it is active in every persistence unit, test slices included.
+public class ItemTableRevisionIntegrator implements Integrator,
+        PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    static final String INCREMENT = "UPDATE ItemTableRevision r SET r.revision = r.revision + 1";
+
+    // Sessions whose current transaction already increments the revision
+    private final Set<SharedSessionContractImplementor> changed = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getEntity(), event.getSession());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getEntity(), event.getSession());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getEntity(), event.getSession());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void changed(Object entity, EventSource session) {
+        if (!(entity instanceof Item) || !changed.add(session)) {
+            return;
+        }
+        session.getActionQueue().registerProcess(
+                (BeforeTransactionCompletionProcess) s -> s.createMutationQuery(INCREMENT).executeUpdate());
+        // On commit and on rollback, so that the next transaction of the session registers again
+        session.getActionQueue().registerProcess(
+                (AfterTransactionCompletionProcess) (success, s) -> changed.remove(session));
+    }
+}
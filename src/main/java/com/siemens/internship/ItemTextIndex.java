@@ -0,0 +1,121 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChange;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// Full-text index of the item names and descriptions, held in memory next to the database.
+// Built with one streaming scan of the table when the application is ready, then kept in sync by the change feed,
+// which sees every committed write (single, bulk and import). Searches only take a read lock.
+@Component
+public class ItemTextIndex {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemChangeFeed changeFeed;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private InvertedIndex index = new InvertedIndex();
+    private List<ItemChange> changesDuringRebuild; // Not null while a rebuild is scanning the table
+
+    @PostConstruct
+    void followChanges() {
+        changeFeed.addListener(this::apply);
+    }
+
+    /**
+     * Rebuilds the index from the table. Changes committed while the table is scanned are applied to the current
+     * index and replayed onto the new one before it replaces it, so none of them is lost whatever the scan saw.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        InvertedIndex rebuilt = new InvertedIndex();
+        try (Stream<Item> items = itemRepository.streamAll()) {
+            items.forEach(item -> rebuilt.put(item.getId(), item.getName(), item.getDescription()));
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (changesDuringRebuild != null) {
+                    applyTo(rebuilt, changesDuringRebuild);
+                }
+                index = rebuilt;
+                changesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the items whose name or description contain every keyword, best match first.
+     *
+     * @param query The keywords, matched case-insensitively as whole words.
+     * @param limit The maximum number of hits.
+     * @return The IDs and scores of the best hits.
+     */
+    List<InvertedIndex.Hit> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(query, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(List<ItemChange> changes) {
+        lock.writeLock().lock();
+        try {
+            applyTo(index, changes);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.addAll(changes);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void applyTo(InvertedIndex target, List<ItemChange> changes) {
+        for (ItemChange change : changes) {
+            if (change.getItemId() == null) {
+                continue;
+            }
+            switch (change.getType()) {
+                case CREATED, UPDATED -> target.put(change.getItemId(), change.getItem().getName(),
+                        change.getItem().getDescription());
+                case DELETED -> target.remove(change.getItemId());
+                case STATUS_CHANGED -> {
+                    // The status is not indexed
+                }
+            }
+        }
+    }
+}
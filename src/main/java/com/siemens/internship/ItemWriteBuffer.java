@@ -0,0 +1,248 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Write-behind buffer for item updates (item.write-behind.enabled). An update only replaces the pending value
+// of its item, so a burst of updates to the same hot items costs one row write per item and flush instead of one
+// transaction per request. The map locks per bin, so writers of different items never contend.
+// A single flusher writes the pending values in batches through ItemBatchProcessor.updateChunk, every flush-interval
+// or as soon as batch-size items are pending. Pending values live in memory only: they are lost if the process dies
+// before a flush, which is the price of the mode. A normal shutdown flushes them.
+// A value whose write fails max-attempts flushes in a row (e.g. the item was deleted or violates a constraint) is
+// dropped, logged and counted in items.write-behind.dropped, and from then on reads see the database again.
+@Component
+public class ItemWriteBuffer {
+
+    private static final int SHUTDOWN_FLUSH_ATTEMPTS = 3;
+    private static final Logger log = LoggerFactory.getLogger(ItemWriteBuffer.class);
+
+    @Autowired
+    private ItemBatchProcessor batchProcessor;
+
+    @Autowired
+    private ItemCache itemCache;
+
+    @Autowired
+    private ItemChangeFeed changeFeed;
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxPending;
+    private final Duration flushInterval;
+    private final int maxAttempts;
+    private final Map<Long, Item> pending = new ConcurrentHashMap<>(); // Latest unwritten value by item ID
+    private final Map<Long, Integer> failedAttempts = new ConcurrentHashMap<>(); // Of the pending value, by item ID
+    private final ReentrantLock flushLock = new ReentrantLock(); // One flush at a time, so a value is never written twice at once
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean closed;
+    private final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("item-write-behind").daemon().factory());
+
+    private final Counter flushedItems;
+    private final Counter failedWrites;
+    private final Counter droppedWrites;
+
+    public ItemWriteBuffer(@Value("${item.write-behind.enabled:false}") boolean enabled,
+                           @Value("${item.write-behind.batch-size:500}") int batchSize,
+                           @Value("${item.write-behind.max-pending:10000}") int maxPending,
+                           @Value("${item.write-behind.flush-interval:200ms}") Duration flushInterval,
+                           @Value("${item.write-behind.max-attempts:5}") int maxAttempts,
+                           MeterRegistry meterRegistry) {
+        if (batchSize <= 0 || maxPending <= 0 || maxAttempts <= 0) {
+            throw new IllegalArgumentException("item.write-behind.batch-size, max-pending and max-attempts must be positive");
+        }
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.flushInterval = flushInterval;
+        this.maxAttempts = maxAttempts;
+        Gauge.builder("items.write-behind.pending", pending, Map::size)
+                .description("Item updates buffered and not written yet")
+                .register(meterRegistry);
+        this.flushedItems = Counter.builder("items.write-behind.flushed")
+                .description("Buffered item updates written to the database")
+                .register(meterRegistry);
+        this.failedWrites = Counter.builder("items.write-behind.failures")
+                .description("Buffered item updates whose write failed and is retried on the next flush")
+                .register(meterRegistry);
+        this.droppedWrites = Counter.builder("items.write-behind.dropped")
+                .description("Buffered item updates dropped after failing max-attempts times, never written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            long interval = flushInterval.toMillis();
+            flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers the new values of an item, replacing any value of the same item not written yet.
+     *
+     * @param item The complete new values of an existing item.
+     * @return false if the buffer is full or shut down, the caller then has to write the update itself.
+     */
+    public boolean offer(Item item) {
+        if (!enabled || closed || (pending.size() >= maxPending && !pending.containsKey(item.getId()))) {
+            return false;
+        }
+        pending.put(item.getId(), ItemCache.copyOf(item));
+        failedAttempts.remove(item.getId()); // A new value gets its own attempts
+        if (pending.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(() -> {
+                flushScheduled.set(false);
+                flush();
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value of the item not written yet, so that a client reads its own buffered update.
+     *
+     * @param id The ID of the item.
+     * @return A copy of the pending value, or null if nothing is pending for the item.
+     */
+    public Item get(Long id) {
+        Item item = pending.get(id);
+        return item == null ? null : ItemCache.copyOf(item);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    // Drops the pending values of items that are about to be overwritten or deleted by a newer write
+    public void discard(Collection<Long> ids) {
+        if (!pending.isEmpty()) {
+            ids.forEach(pending::remove);
+            ids.forEach(failedAttempts::remove);
+        }
+    }
+
+    /**
+     * Writes the pending values of the given items now, for a write that must see them in the database
+     * (a conditional update, or processing that would otherwise be overwritten by the older buffered value).
+     *
+     * @param ids The IDs of the items, most of which usually have nothing pending.
+     * @throws DataAccessException If the write failed, the values then stay pending.
+     */
+    public void flush(Collection<Long> ids) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<Item> batch = ids.stream().map(pending::get).filter(Objects::nonNull).toList();
+            if (!batch.isEmpty()) {
+                write(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Writes everything pending in batches of batch-size. A failed item stays pending for the next flush
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Item> batch = new ArrayList<>(batchSize);
+            for (Item item : pending.values()) {
+                batch.add(item);
+                if (batch.size() == batchSize) {
+                    writeOrRetryLater(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeOrRetryLater(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeOrRetryLater(List<Item> batch) {
+        try {
+            write(batch);
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                failedWrites.increment();
+                retryOrDrop(batch.get(0), e);
+                return;
+            }
+            // Written one by one, so that one item (e.g. racing a concurrent update) does not hold back the others
+            for (Item item : batch) {
+                writeOrRetryLater(List.of(item));
+            }
+        }
+    }
+
+    // Keeps the value for the next flush, or drops it once it failed max-attempts times: a write failing that often
+    // (e.g. a constraint violation) would never succeed, and reads must not keep serving it as if it were written
+    private void retryOrDrop(Item item, DataAccessException cause) {
+        Long id = item.getId();
+        if (failedAttempts.merge(id, 1, Integer::sum) < maxAttempts) {
+            return;
+        }
+        if (pending.remove(id, item)) {
+            failedAttempts.remove(id);
+            droppedWrites.increment();
+            log.warn("Dropped the buffered update of item {} after {} failed writes: {}",
+                    id, maxAttempts, cause.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private void write(List<Item> batch) {
+        Collection<Item> updated = batchProcessor.updateChunk(batch);
+        List<Long> ids = batch.stream().map(Item::getId).toList();
+        itemCache.invalidateAll(ids); // Not put: an item deleted in the meantime must not come back through the cache
+        for (Item item : batch) {
+            if (pending.remove(item.getId(), item)) { // Keeps a newer value buffered while this one was written
+                failedAttempts.remove(item.getId());
+            }
+        }
+        flushedItems.increment(updated.size());
+        changeFeed.updated(updated);
+    }
+
+    // Runs before the beans it writes through are destroyed. New updates are refused first, they are written directly
+    @PreDestroy
+    public void shutdown() {
+        closed = true;
+        flusher.shutdown();
+        for (int attempt = 0; attempt < SHUTDOWN_FLUSH_ATTEMPTS && !pending.isEmpty(); attempt++) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingFailure;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.model.ProcessingPartition;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Processing shared by every node running against the same database. A partitioned job splits the item table
+// into ID ranges (ProcessingPartition); a worker on every node claims ranges through the lease table and runs
+// them through its own pipeline, so throughput grows with the number of nodes and every range is processed
+// by one node. A node that dies leaves its ranges CLAIMED until their lease expires, another node then redoes them.
+@Service
+public class PartitionedProcessingService {
+
+    private static final int PARTITION_SAVE_BATCH = 100;
+
+    @Autowired
+    private ProcessingPartitionRepository partitionRepository;
+
+    @Autowired
+    private ProcessingJobRepository jobRepository;
+
+    @Autowired
+    private ProcessingFailureRepository failureRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemProcessingPipeline processingPipeline;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final boolean workerEnabled;
+    private final String nodeId;
+    private final int partitionSize;
+    private final Duration lease;
+    private final Duration pollInterval;
+    private final int maxClaimed;
+    private final AtomicInteger claimed = new AtomicInteger(); // Partitions this node is processing right now
+    private final Map<Long, PartitionTracker> active = new ConcurrentHashMap<>(); // Their trackers, by partition ID
+    private final ScheduledExecutorService poller =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("partition-poller").daemon().factory());
+    // Apart from the poller, which can block while the pipeline is full
+    private final ScheduledExecutorService heartbeat =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("partition-lease-heartbeat").daemon().factory());
+
+    public PartitionedProcessingService(@Value("${item.processing.partitions.worker-enabled:true}") boolean workerEnabled,
+                                        @Value("${item.processing.partitions.node-id:}") String nodeId,
+                                        @Value("${item.processing.partitions.size:10000}") int partitionSize,
+                                        @Value("${item.processing.partitions.lease:5m}") Duration lease,
+                                        @Value("${item.processing.partitions.poll-interval:1s}") Duration pollInterval,
+                                        @Value("${item.processing.partitions.max-claimed:2}") int maxClaimed) {
+        if (partitionSize <= 0 || maxClaimed <= 0) {
+            throw new IllegalArgumentException("item.processing.partitions.size and max-claimed must be positive");
+        }
+        this.workerEnabled = workerEnabled;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId; // A restarted node is a new owner
+        this.partitionSize = partitionSize;
+        this.lease = lease;
+        this.pollInterval = pollInterval;
+        this.maxClaimed = maxClaimed;
+    }
+
+    /**
+     * Cuts the items of the job into ranges of at most item.processing.partitions.size items, by keyset over the IDs.
+     * The ranges are saved in one transaction and become claimable by every node together once it commits: a range
+     * completed while the next ones were still being saved would see no unfinished range and end the job early.
+     *
+     * @param job The saved partitioned job.
+     * @return The number of partitions created.
+     */
+    public int createPartitions(ProcessingJob job) {
+        return transactionTemplate.execute(status -> {
+            PageRequest page = PageRequest.of(0, partitionSize);
+            List<ProcessingPartition> batch = new ArrayList<>(PARTITION_SAVE_BATCH);
+            int created = 0;
+            Long startId = 0L;
+            while (true) {
+                List<Long> ids = job.isPendingOnly()
+                        ? itemRepository.findPendingIdsAfter(startId, page)
+                        : itemRepository.findIdsAfter(startId, page);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Long endId = ids.get(ids.size() - 1);
+                batch.add(new ProcessingPartition(job.getId(), startId, endId));
+                startId = endId;
+                if (batch.size() == PARTITION_SAVE_BATCH) {
+                    created += partitionRepository.saveAll(batch).size();
+                    batch.clear();
+                }
+            }
+            created += partitionRepository.saveAll(batch).size();
+            return created;
+        });
+    }
+
+    public List<ProcessingPartition> getPartitions(Long jobId) {
+        return partitionRepository.findByJobIdOrderByStartIdAsc(jobId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWorker() {
+        if (workerEnabled) {
+            poller.scheduleWithFixedDelay(this::claimPartitions, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+            long period = Math.max(1, lease.toMillis() / 3);
+            heartbeat.scheduleAtFixedRate(this::renewLeases, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Keeps the leases of the partitions this node processes, however long their chunks take. A partition whose
+    // lease was taken over by another node is stopped
+    void renewLeases() {
+        Instant leaseUntil = Instant.now().plus(lease);
+        active.forEach((partitionId, tracker) -> {
+            try {
+                if (partitionRepository.renewLease(partitionId, nodeId, leaseUntil) == 0) {
+                    tracker.lost = true;
+                }
+            } catch (RuntimeException e) {
+                // A failed renewal must not cancel the schedule, the next one tries again before the lease expires
+            }
+        });
+    }
+
+    // Claims partitions until this node processes max-claimed of them or none is left
+    void claimPartitions() {
+        try {
+            while (claimed.get() < maxClaimed) {
+                Long partitionId = claimNext();
+                if (partitionId == null) {
+                    return;
+                }
+                claimed.incrementAndGet();
+                try {
+                    process(partitionId);
+                } catch (RuntimeException e) {
+                    claimed.decrementAndGet(); // Its lease expires and another poll retries it
+                    throw e;
+                }
+            }
+        } catch (RuntimeException e) {
+            // A failed poll must not cancel the schedule, the next one tries again
+        }
+    }
+
+    // Other nodes may win the race for a candidate, the next candidate is tried then
+    private Long claimNext() {
+        Instant now = Instant.now();
+        for (Long id : partitionRepository.findClaimableIds(now, Limit.of(maxClaimed + 8))) {
+            if (partitionRepository.claim(id, nodeId, now.plus(lease), now) == 1) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    private void process(Long partitionId) {
+        ProcessingPartition partition = partitionRepository.findById(partitionId).orElseThrow();
+        ProcessingJob job = jobRepository.findById(partition.getJobId()).orElseThrow();
+        ItemProcessingPipeline.Scope scope = job.isPendingOnly()
+                ? ItemProcessingPipeline.Scope.PENDING
+                : ItemProcessingPipeline.Scope.ALL;
+        PartitionTracker tracker = new PartitionTracker(partition);
+        active.put(partitionId, tracker);
+        processingPipeline.processRange(scope, partition.getStartId(), partition.getEndId(), tracker)
+                .whenComplete((voidResult, ex) -> {
+                    try {
+                        if (ex == null && !tracker.lost) {
+                            tracker.finish();
+                        }
+                        // On failure the partition stays CLAIMED and is redone once the lease expired
+                    } finally {
+                        active.remove(partitionId);
+                        claimed.decrementAndGet();
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        heartbeat.shutdownNow();
+    }
+
+    // Counts the outcome of one partition. The counts and failures are only written when the partition completes,
+    // together with its DONE status, so a partition redone by another node is never counted twice.
+    // Once the lease is lost (see renewLeases) no further chunk is started and the outcome is dropped.
+    private final class PartitionTracker implements ItemProcessingPipeline.ChunkListener<Item> {
+
+        private final ProcessingPartition partition;
+        private final List<ProcessingFailure> failures = new ArrayList<>();
+        private long processed;
+        private volatile boolean lost;
+
+        private PartitionTracker(ProcessingPartition partition) {
+            this.partition = partition;
+        }
+
+        @Override
+        public boolean isStopped() {
+            return lost;
+        }
+
+        @Override
+        public synchronized void onChunkProcessed(List<Long> ids, List<Item> items) {
+            Set<Long> processedIds = items.stream().map(Item::getId).collect(Collectors.toSet());
+            processed += processedIds.size();
+            ids.stream()
+                    .filter(id -> !processedIds.contains(id))
+                    .forEach(id -> failures.add(failure(id, "Item not found")));
+        }
+
+        @Override
+        public synchronized void onChunkFailed(List<Long> ids, Throwable cause) {
+            String reason = ProcessingJobService.describe(cause);
+            ids.forEach(id -> failures.add(failure(id, reason)));
+        }
+
+        private ProcessingFailure failure(Long itemId, String reason) {
+            return new ProcessingFailure(null, partition.getJobId(), itemId, reason, Instant.now());
+        }
+
+        // The last node to complete a partition of the job sees no unfinished partition after its commit and ends the job
+        private synchronized void finish() {
+            Long jobId = partition.getJobId();
+            Boolean completed = transactionTemplate.execute(status -> {
+                if (partitionRepository.complete(partition.getId(), nodeId, processed, failures.size()) == 0) {
+                    return false; // The lease was lost, the node that took the partition over reports it
+                }
+                failureRepository.saveAll(failures);
+                jobRepository.addProgress(jobId, processed, failures.size());
+                return true;
+            });
+            if (Boolean.TRUE.equals(completed) && partitionRepository.countUnfinished(jobId) == 0) {
+                jobRepository.finish(jobId, ProcessingJob.Status.COMPLETED, Instant.now());
+            }
+        }
+    }
+}
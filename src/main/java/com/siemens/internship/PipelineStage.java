@@ -0,0 +1,143 @@
+package com.siemens.internship;
+
+import com.siemens.internship.exception.DataProcessingException;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// One stage of the processing pipeline: at most `concurrency + queueDepth` tasks are admitted at once.
+// submit() blocks while the stage is full, which is what pushes back on whoever feeds it,
+// so the amount of work in flight (and the memory it holds) stays bounded.
+// FIXED runs the tasks on `concurrency` platform threads, the others wait for a worker. VIRTUAL starts every admitted
+// task on its own virtual thread: the stages that use the database are bounded by the pipeline's database permits
+// instead, not by a thread count sized for platform threads.
+class PipelineStage {
+
+    private final String name;
+    private final int concurrency;
+    private final int capacity;
+    private final int parallelism; // Threads forEach() can spread over: the pool size, or one per item with virtual threads
+    private final ExecutorService executor;
+    private final AtomicInteger running = new AtomicInteger(); // Tasks currently executing
+    private final Semaphore admitted; // Tasks executing or waiting
+
+    PipelineStage(String name, ItemProcessingProperties.Stage config, ItemProcessingProperties.ExecutorMode mode) {
+        if (config.getConcurrency() <= 0 || config.getQueueDepth() < 0) {
+            throw new IllegalArgumentException("Stage " + name + " needs a positive concurrency and a non-negative queue depth");
+        }
+        this.name = name;
+        this.concurrency = config.getConcurrency();
+        this.capacity = config.getConcurrency() + config.getQueueDepth();
+        boolean virtual = mode == ItemProcessingProperties.ExecutorMode.VIRTUAL;
+        this.parallelism = virtual ? Integer.MAX_VALUE : config.getConcurrency();
+        this.executor = virtual
+                ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory())
+                : Executors.newFixedThreadPool(config.getConcurrency(), Thread.ofPlatform().name(name + "-", 0).factory());
+        this.admitted = new Semaphore(capacity);
+    }
+
+    /**
+     * Schedules the task on this stage, waiting first until the stage has room for it.
+     *
+     * @param task The work to run.
+     * @return A future completed with the task's result, or exceptionally if it failed.
+     */
+    <T> CompletableFuture<T> submit(Supplier<T> task) {
+        acquire(admitted);
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                running.incrementAndGet();
+                try {
+                    return task.get();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }, executor).whenComplete((result, ex) -> admitted.release());
+        } catch (RejectedExecutionException e) {
+            admitted.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs the action on every item, spread over the threads of this stage, and returns once all are done.
+     * Called from a task of this stage: the calling thread works through the items too, and helpers only take
+     * items that nobody has taken yet, so a helper still waiting for a pool thread never holds up the caller.
+     *
+     * @param items  The items, each handed to the action exactly once.
+     * @param action The per-item work. If it fails for an item, the remaining items are skipped.
+     * @throws RuntimeException The first failure of the action.
+     */
+    <T> void forEach(List<T> items, Consumer<T> action) {
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(items.size());
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < items.size(); i = next.getAndIncrement()) {
+                try {
+                    if (failure.get() == null) {
+                        action.accept(items.get(i));
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        int helpers = Math.min(items.size(), parallelism) - 1;
+        try {
+            for (int h = 0; h < helpers; h++) {
+                executor.execute(worker);
+            }
+        } catch (RejectedExecutionException e) {
+            // Shutting down, the caller works through the rest alone
+        }
+        worker.run();
+        try {
+            done.await(); // Only for the items helpers are still working on
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataProcessingException("Interrupted while waiting for the " + name + " stage", e);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    // Tasks executing right now
+    int active() {
+        return running.get();
+    }
+
+    // Tasks admitted beyond the stage's concurrency: waiting for a worker with FIXED, started anyway with VIRTUAL
+    int queued() {
+        return Math.max(0, capacity - admitted.availablePermits() - concurrency);
+    }
+
+    String name() {
+        return name;
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataProcessingException("Interrupted while waiting for the " + name + " stage", e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.ProcessingFailure;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ProcessingFailureRepository extends JpaRepository<ProcessingFailure, Long> {
+
+    // Keyset paging over the failures of one job
+    List<ProcessingFailure> findByJobIdAndIdGreaterThanOrderByIdAsc(Long jobId, Long afterId, Limit limit);
+}
@@ -0,0 +1,63 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.ProcessingFailure;
+import com.siemens.internship.model.ProcessingJobProgress;
+import com.siemens.internship.model.ProcessingPartition;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+// Processing as background jobs: POST starts a job and returns right away (202 ACCEPTED),
+// the job is then followed through its progress and its failed items
+@RestController
+@RequestMapping("/api/items/process/jobs")
+public class ProcessingJobController {
+
+    @Autowired
+    private ProcessingJobService jobService;
+
+    @Autowired
+    private ItemLoadProtection loadProtection;
+
+    // pendingOnly=true only processes the items that are not PROCESSED yet,
+    // partitioned=true shares the job between every node running against the same database
+    @PostMapping
+    public ResponseEntity<ProcessingJobProgress> startJob(@RequestParam(defaultValue = "false") boolean pendingOnly,
+                                                          @RequestParam(defaultValue = "false") boolean partitioned) {
+        loadProtection.admitProcessing();
+        ProcessingJobProgress progress = partitioned ? jobService.startPartitioned(pendingOnly) : jobService.start(pendingOnly);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/items/process/jobs/" + progress.getId()))
+                .body(progress);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProcessingJobProgress> getJob(@PathVariable Long id) {
+        return new ResponseEntity<>(jobService.getProgress(id), HttpStatus.OK);
+    }
+
+    // Continues a failed or interrupted job from its checkpoint
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ProcessingJobProgress> resumeJob(@PathVariable Long id) {
+        loadProtection.admitProcessing();
+        return new ResponseEntity<>(jobService.resume(id), HttpStatus.ACCEPTED);
+    }
+
+    // The ID ranges of a partitioned job with the node that owns or completed each of them
+    @GetMapping("/{id}/partitions")
+    public ResponseEntity<List<ProcessingPartition>> getJobPartitions(@PathVariable Long id) {
+        return new ResponseEntity<>(jobService.getPartitions(id), HttpStatus.OK);
+    }
+
+    // Failed items with their reason, paged by passing the last returned failure ID as afterId
+    @GetMapping("/{id}/failures")
+    public ResponseEntity<List<ProcessingFailure>> getJobFailures(@PathVariable Long id,
+                                                                  @RequestParam(defaultValue = "0") Long afterId,
+                                                                  @RequestParam(defaultValue = "100") int limit) {
+        return new ResponseEntity<>(jobService.getFailures(id, afterId, limit), HttpStatus.OK);
+    }
+}
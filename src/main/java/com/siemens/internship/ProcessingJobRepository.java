@@ -0,0 +1,69 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.ProcessingJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ProcessingJobRepository extends JpaRepository<ProcessingJob, Long> {
+
+    // RUNNING jobs whose node is gone: the lease expired, or the job was left by an earlier run of this node
+    @Query("""
+            SELECT j FROM ProcessingJob j
+            WHERE j.status = com.siemens.internship.model.ProcessingJob.Status.RUNNING AND j.partitioned = false
+              AND (j.owner = :owner OR j.leaseUntil IS NULL OR j.leaseUntil < :now)""")
+    List<ProcessingJob> findResumable(@Param("owner") String owner, @Param("now") Instant now);
+
+    // Takes the lease of a job before it is (re)started. Like ProcessingPartitionRepository.claim, exactly one node
+    // sees an update count of 1 when several race; a RUNNING job can only be taken over once its lease expired
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE ProcessingJob j SET j.owner = :owner, j.leaseUntil = :leaseUntil
+            WHERE j.id = :id AND j.status <> com.siemens.internship.model.ProcessingJob.Status.COMPLETED
+              AND (j.status <> com.siemens.internship.model.ProcessingJob.Status.RUNNING
+                   OR j.owner = :owner OR j.leaseUntil IS NULL OR j.leaseUntil < :now)""")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("leaseUntil") Instant leaseUntil, @Param("now") Instant now);
+
+    // Adds the counts of a finished partition, several nodes may do so concurrently
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.processedCount = j.processedCount + :processed, " +
+            "j.failedCount = j.failedCount + :failed WHERE j.id = :id")
+    int addProgress(@Param("id") Long id, @Param("processed") long processed, @Param("failed") long failed);
+
+    // Moves the checkpoint forward, adds the counts of the items handled up to it and renews the lease, in one
+    // statement. 0 means the lease was lost to another node, which continues from the previous checkpoint
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.lastProcessedId = :checkpoint, " +
+            "j.processedCount = j.processedCount + :processed, j.failedCount = j.failedCount + :failed, " +
+            "j.leaseUntil = :leaseUntil WHERE j.id = :id AND j.owner = :owner")
+    int recordProgress(@Param("id") Long id, @Param("owner") String owner, @Param("leaseUntil") Instant leaseUntil,
+                       @Param("checkpoint") Long checkpoint, @Param("processed") long processed,
+                       @Param("failed") long failed);
+
+    // Heartbeat of a running job between checkpoints, same condition as recordProgress
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.leaseUntil = :leaseUntil WHERE j.id = :id AND j.owner = :owner")
+    int renewLease(@Param("id") Long id, @Param("owner") String owner, @Param("leaseUntil") Instant leaseUntil);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.status = :status, j.finishedAt = :finishedAt WHERE j.id = :id")
+    int finish(@Param("id") Long id, @Param("status") ProcessingJob.Status status, @Param("finishedAt") Instant finishedAt);
+
+    // Same condition as recordProgress: a node that lost the lease leaves the job to its new owner
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.status = :status, j.finishedAt = :finishedAt, j.leaseUntil = null " +
+            "WHERE j.id = :id AND j.owner = :owner")
+    int finish(@Param("id") Long id, @Param("owner") String owner,
+               @Param("status") ProcessingJob.Status status, @Param("finishedAt") Instant finishedAt);
+}
@@ -0,0 +1,367 @@
+package com.siemens.internship;
+
+import com.siemens.internship.exception.ConflictException;
+import com.siemens.internship.exception.InvalidRequestException;
+import com.siemens.internship.exception.ResourceNotFoundException;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingFailure;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.model.ProcessingJobProgress;
+import com.siemens.internship.model.ProcessingPartition;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Runs item processing as persistent jobs: started in the background, observable while running,
+// checkpointed as chunks complete and resumable from the checkpoint after a failure or a restart.
+@Service
+public class ProcessingJobService {
+
+    private static final int MAX_REASON_LENGTH = 500;
+
+    @Autowired
+    private ProcessingJobRepository jobRepository;
+
+    @Autowired
+    private ProcessingFailureRepository failureRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemProcessingPipeline processingPipeline;
+
+    @Autowired
+    private PartitionedProcessingService partitionedProcessing;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final Map<Long, JobTracker> activeJobs = new ConcurrentHashMap<>(); // Jobs running on this node
+    private final boolean resumeOnStartup;
+    private final Duration lease;
+    private final ScheduledExecutorService heartbeat =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("job-lease-heartbeat").daemon().factory());
+
+    public ProcessingJobService(@Value("${item.processing.jobs.resume-on-startup:true}") boolean resumeOnStartup,
+                                @Value("${item.processing.jobs.lease:5m}") Duration lease) {
+        this.resumeOnStartup = resumeOnStartup;
+        this.lease = lease;
+    }
+
+    /**
+     * Creates a job and starts it in the background.
+     *
+     * @param pendingOnly true to only process the items that are not PROCESSED yet.
+     * @return The progress of the new job.
+     */
+    public ProcessingJobProgress start(boolean pendingOnly) {
+        // Saved first to get its ID, already leased so that no other node can take it before it is launched
+        ProcessingJob job = newJob(pendingOnly);
+        job.setOwner(partitionedProcessing.getNodeId());
+        job.setLeaseUntil(Instant.now().plus(lease));
+        return toProgress(launch(jobRepository.save(job)));
+    }
+
+    /**
+     * Creates a job split into partitions that the workers of every node claim and process,
+     * see {@link PartitionedProcessingService}. The job completes when its last partition is done.
+     *
+     * @param pendingOnly true to only process the items that are not PROCESSED yet.
+     * @return The progress of the new job.
+     */
+    public ProcessingJobProgress startPartitioned(boolean pendingOnly) {
+        ProcessingJob job = newJob(pendingOnly);
+        job.setPartitioned(true);
+        job.setRunStartedAt(job.getStartedAt());
+        ProcessingJob saved = jobRepository.save(job);
+        if (partitionedProcessing.createPartitions(saved) == 0) {
+            saved.setStatus(ProcessingJob.Status.COMPLETED);
+            saved.setFinishedAt(Instant.now());
+            saved = jobRepository.save(saved);
+        }
+        return toProgress(saved);
+    }
+
+    private ProcessingJob newJob(boolean pendingOnly) {
+        ProcessingJob job = new ProcessingJob();
+        job.setStatus(ProcessingJob.Status.RUNNING);
+        job.setPendingOnly(pendingOnly);
+        job.setTotalCount(pendingOnly ? itemRepository.countPending() : itemRepository.count());
+        job.setLastProcessedId(0L);
+        job.setStartedAt(Instant.now());
+        return job;
+    }
+
+    /**
+     * Restarts a failed or interrupted job from its checkpoint.
+     *
+     * @param id The ID of the job.
+     * @return The progress of the resumed job.
+     * @throws ConflictException If the job is completed, partitioned, or still running on a node that holds its lease.
+     */
+    public ProcessingJobProgress resume(Long id) {
+        ProcessingJob job = findJob(id);
+        if (job.getStatus() == ProcessingJob.Status.COMPLETED) {
+            throw new ConflictException("Processing job " + id + " is already completed");
+        }
+        if (job.isPartitioned()) {
+            throw new ConflictException("Partitioned job " + id + " is resumed by the partition workers when its leases expire");
+        }
+        return toProgress(launch(job));
+    }
+
+    public ProcessingJobProgress getProgress(Long id) {
+        return toProgress(findJob(id));
+    }
+
+    public List<ProcessingPartition> getPartitions(Long id) {
+        findJob(id);
+        return partitionedProcessing.getPartitions(id);
+    }
+
+    public List<ProcessingFailure> getFailures(Long id, Long afterId, int limit) {
+        if (limit <= 0 || limit > ItemService.MAX_PAGE_SIZE) {
+            throw new InvalidRequestException("limit must be between 1 and " + ItemService.MAX_PAGE_SIZE);
+        }
+        findJob(id);
+        return failureRepository.findByJobIdAndIdGreaterThanOrderByIdAsc(id, afterId, Limit.of(limit));
+    }
+
+    // Jobs still RUNNING in the database whose lease expired were cut off by a shutdown or a crash, they continue
+    // from their checkpoint. The jobs of the other live nodes keep renewing their lease and are left alone
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        if (!resumeOnStartup) {
+            return;
+        }
+        for (ProcessingJob job : jobRepository.findResumable(partitionedProcessing.getNodeId(), Instant.now())) {
+            if (activeJobs.containsKey(job.getId())) {
+                continue;
+            }
+            try {
+                launch(job);
+            } catch (ConflictException e) {
+                // Another node starting at the same time resumed it first
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startHeartbeat() {
+        long period = Math.max(1, lease.toMillis() / 3);
+        heartbeat.scheduleAtFixedRate(this::renewLeases, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    // Keeps the lease of every job running on this node, however long its chunks take. A job whose lease was
+    // taken over by another node is stopped
+    void renewLeases() {
+        Instant leaseUntil = Instant.now().plus(lease);
+        for (JobTracker tracker : activeJobs.values()) {
+            if (!tracker.leased) {
+                continue; // Not claimed yet, renewing could not tell a lost lease from one that is still being taken
+            }
+            try {
+                if (jobRepository.renewLease(tracker.jobId, tracker.owner, leaseUntil) == 0) {
+                    tracker.lost = true;
+                }
+            } catch (RuntimeException e) {
+                // A failed renewal must not cancel the schedule, the next one tries again before the lease expires
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeat.shutdownNow();
+    }
+
+    private ProcessingJob findJob(Long id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Processing job not found with id: " + id));
+    }
+
+    // Registers the job as running on this node first, so that the same job can never be launched twice at once,
+    // then takes its lease, so that no other node runs it at the same time either
+    private ProcessingJob launch(ProcessingJob candidate) {
+        Long jobId = candidate.getId();
+        String nodeId = partitionedProcessing.getNodeId();
+        JobTracker tracker = new JobTracker(jobId, nodeId);
+        if (activeJobs.putIfAbsent(jobId, tracker) != null) {
+            throw new ConflictException("Processing job " + jobId + " is already running");
+        }
+
+        ProcessingJob saved;
+        try {
+            Instant now = Instant.now();
+            if (jobRepository.claim(jobId, nodeId, now.plus(lease), now) == 0) {
+                throw new ConflictException("Processing job " + jobId + " is running on another node");
+            }
+            ProcessingJob job = findJob(jobId); // Re-read, the previous owner may have checkpointed in the meantime
+            job.setStatus(ProcessingJob.Status.RUNNING);
+            job.setRunStartedAt(Instant.now());
+            job.setHandledAtRunStart(job.getProcessedCount() + job.getFailedCount());
+            job.setFinishedAt(null);
+            saved = jobRepository.save(job);
+            tracker.leased = true;
+        } catch (RuntimeException e) {
+            activeJobs.remove(jobId);
+            throw e;
+        }
+
+        ItemProcessingPipeline.Scope scope = saved.isPendingOnly()
+                ? ItemProcessingPipeline.Scope.PENDING
+                : ItemProcessingPipeline.Scope.ALL;
+        processingPipeline.processAll(scope, saved.getLastProcessedId(), tracker)
+                .whenComplete((voidResult, ex) -> {
+                    activeJobs.remove(jobId);
+                    if (tracker.lost) {
+                        return; // The node that took the job over finishes it
+                    }
+                    jobRepository.finish(jobId, nodeId,
+                            ex == null ? ProcessingJob.Status.COMPLETED : ProcessingJob.Status.FAILED, Instant.now());
+                });
+        return saved;
+    }
+
+    private ProcessingJobProgress toProgress(ProcessingJob job) {
+        long handled = job.getProcessedCount() + job.getFailedCount();
+        double itemsPerSecond = 0;
+        Long etaSeconds = null;
+
+        if (job.getRunStartedAt() != null) {
+            Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+            double seconds = Duration.between(job.getRunStartedAt(), end).toMillis() / 1000.0;
+            if (seconds > 0) {
+                itemsPerSecond = (handled - job.getHandledAtRunStart()) / seconds;
+            }
+        }
+        if (job.getStatus() == ProcessingJob.Status.COMPLETED) {
+            etaSeconds = 0L;
+        } else if (job.getStatus() == ProcessingJob.Status.RUNNING && itemsPerSecond > 0) {
+            etaSeconds = (long) Math.ceil(Math.max(0, job.getTotalCount() - handled) / itemsPerSecond);
+        }
+
+        return new ProcessingJobProgress(job.getId(), job.getStatus(), job.getTotalCount(),
+                job.getProcessedCount(), job.getFailedCount(), job.getLastProcessedId(),
+                job.getStartedAt(), job.getFinishedAt(), itemsPerSecond, etaSeconds);
+    }
+
+    static String describe(Throwable cause) {
+        Throwable root = cause instanceof CompletionException && cause.getCause() != null ? cause.getCause() : cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String reason = root.getMessage() != null ? root.getMessage() : root.getClass().getSimpleName();
+        return reason.length() > MAX_REASON_LENGTH ? reason.substring(0, MAX_REASON_LENGTH) : reason;
+    }
+
+    // Chunks complete out of order, so the checkpoint only moves over the leading chunks that are all done.
+    // Their counts and failures are written together with the checkpoint, which keeps the job row consistent with it.
+    // Once the lease is lost no further chunk is started and the outcome of the chunks still in flight is dropped:
+    // the new owner processes them again from the last checkpoint.
+    private final class JobTracker implements ItemProcessingPipeline.ChunkListener<Item> {
+
+        private final Long jobId;
+        private final String owner;
+        private final LinkedHashMap<Long, ChunkOutcome> inFlight = new LinkedHashMap<>(); // By last ID of the chunk, in submission order, null until done
+        private volatile boolean leased;
+        private volatile boolean lost;
+
+        private JobTracker(Long jobId, String owner) {
+            this.jobId = jobId;
+            this.owner = owner;
+        }
+
+        @Override
+        public synchronized void onChunkSubmitted(List<Long> ids) {
+            inFlight.put(ids.get(ids.size() - 1), null);
+        }
+
+        @Override
+        public boolean isStopped() {
+            return lost;
+        }
+
+        @Override
+        public void onChunkProcessed(List<Long> ids, List<Item> items) {
+            Set<Long> processedIds = items.stream().map(Item::getId).collect(Collectors.toSet());
+            List<ProcessingFailure> failures = ids.stream()
+                    .filter(id -> !processedIds.contains(id))
+                    .map(id -> failure(id, "Item not found"))
+                    .toList();
+            complete(ids, processedIds.size(), failures);
+        }
+
+        @Override
+        public void onChunkFailed(List<Long> ids, Throwable cause) {
+            String reason = describe(cause);
+            complete(ids, 0, ids.stream().map(id -> failure(id, reason)).toList());
+        }
+
+        private ProcessingFailure failure(Long itemId, String reason) {
+            return new ProcessingFailure(null, jobId, itemId, reason, Instant.now());
+        }
+
+        private synchronized void complete(List<Long> ids, int processed, List<ProcessingFailure> failures) {
+            if (lost) {
+                return;
+            }
+            inFlight.put(ids.get(ids.size() - 1), new ChunkOutcome(processed, failures));
+
+            Long checkpoint = null;
+            long processedDelta = 0;
+            List<ProcessingFailure> newFailures = new ArrayList<>();
+            Iterator<Map.Entry<Long, ChunkOutcome>> iterator = inFlight.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<Long, ChunkOutcome> entry = iterator.next();
+                if (entry.getValue() == null) {
+                    break; // An earlier chunk is still running
+                }
+                checkpoint = entry.getKey();
+                processedDelta += entry.getValue().processed();
+                newFailures.addAll(entry.getValue().failures());
+                iterator.remove();
+            }
+            if (checkpoint == null) {
+                return;
+            }
+
+            Long newCheckpoint = checkpoint;
+            long newProcessed = processedDelta;
+            transactionTemplate.executeWithoutResult(status -> {
+                // Each checkpoint also renews the lease. Once the lease is lost, the new owner records these items
+                // again from its own checkpoint, so neither the counts nor the failures are kept here
+                if (jobRepository.recordProgress(jobId, owner, Instant.now().plus(lease),
+                        newCheckpoint, newProcessed, newFailures.size()) == 1) {
+                    failureRepository.saveAll(newFailures);
+                } else {
+                    lost = true;
+                }
+            });
+        }
+    }
+
+    private record ChunkOutcome(int processed, List<ProcessingFailure> failures) {
+    }
+}
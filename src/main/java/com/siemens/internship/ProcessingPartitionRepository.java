@@ -0,0 +1,65 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.ProcessingPartition;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+// Lease table of partitioned processing. Every change of ownership is a conditional UPDATE, so when several nodes
+// race for the same partition exactly one of them sees an update count of 1; this plays the role of
+// SELECT ... FOR UPDATE SKIP LOCKED portably, H2 included.
+public interface ProcessingPartitionRepository extends JpaRepository<ProcessingPartition, Long> {
+
+    // Partitions that can be claimed: never claimed yet, or claimed by a node whose lease expired
+    @Query("""
+            SELECT p.id FROM ProcessingPartition p
+            WHERE p.status = com.siemens.internship.model.ProcessingPartition.Status.PENDING
+               OR (p.status = com.siemens.internship.model.ProcessingPartition.Status.CLAIMED AND p.leaseUntil < :now)
+            ORDER BY p.id""")
+    List<Long> findClaimableIds(@Param("now") Instant now, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE ProcessingPartition p
+            SET p.status = com.siemens.internship.model.ProcessingPartition.Status.CLAIMED,
+                p.owner = :owner, p.leaseUntil = :leaseUntil
+            WHERE p.id = :id
+              AND (p.status = com.siemens.internship.model.ProcessingPartition.Status.PENDING
+                   OR (p.status = com.siemens.internship.model.ProcessingPartition.Status.CLAIMED AND p.leaseUntil < :now))""")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("leaseUntil") Instant leaseUntil, @Param("now") Instant now);
+
+    // Only the owner can extend its lease, 0 means the lease was lost to another node
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE ProcessingPartition p SET p.leaseUntil = :leaseUntil
+            WHERE p.id = :id AND p.owner = :owner
+              AND p.status = com.siemens.internship.model.ProcessingPartition.Status.CLAIMED""")
+    int renewLease(@Param("id") Long id, @Param("owner") String owner, @Param("leaseUntil") Instant leaseUntil);
+
+    // Same condition as renewLease: a node that lost its lease cannot complete the partition
+    @Modifying
+    @Query("""
+            UPDATE ProcessingPartition p
+            SET p.status = com.siemens.internship.model.ProcessingPartition.Status.DONE,
+                p.processedCount = :processed, p.failedCount = :failed
+            WHERE p.id = :id AND p.owner = :owner
+              AND p.status = com.siemens.internship.model.ProcessingPartition.Status.CLAIMED""")
+    int complete(@Param("id") Long id, @Param("owner") String owner,
+                 @Param("processed") long processed, @Param("failed") long failed);
+
+    @Query("""
+            SELECT COUNT(p) FROM ProcessingPartition p
+            WHERE p.jobId = :jobId AND p.status <> com.siemens.internship.model.ProcessingPartition.Status.DONE""")
+    long countUnfinished(@Param("jobId") Long jobId);
+
+    List<ProcessingPartition> findByJobIdOrderByStartIdAsc(Long jobId);
+}
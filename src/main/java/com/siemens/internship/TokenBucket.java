@@ -0,0 +1,48 @@
+package com.siemens.internship;
+
+import java.util.function.LongSupplier;
+
+// Token bucket rate limiter: holds at most `burst` tokens and gains permitsPerSecond of them per second, so it lets
+// bursts of `burst` requests through and permitsPerSecond on average. The bucket is refilled lazily from the time
+// elapsed since the last request, so it needs no timer thread.
+class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime);
+    }
+
+    TokenBucket(double permitsPerSecond, int burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("A rate limit needs a positive permits-per-second and burst");
+        }
+        this.capacity = burst;
+        this.tokensPerNano = permitsPerSecond / NANOS_PER_SECOND;
+        this.nanoClock = nanoClock;
+        this.tokens = burst; // Starts full
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next token is available.
+     */
+    synchronized long tryAcquire() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) / tokensPerNano);
+    }
+}
@@ -0,0 +1,16 @@
+package com.siemens.internship.exception;
+
+// A request over the rate limit of its endpoint, to be retried after retryAfterSeconds
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,19 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// Why one element of a bulk request was rejected. index is the position of the element in the request body.
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkError {
+    private int index;
+    private Long id;
+    private List<String> errors;
+}
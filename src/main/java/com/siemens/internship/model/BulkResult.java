@@ -0,0 +1,33 @@
+package com.siemens.internship.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk request: the IDs of the elements that succeeded (in request order)
+// and one error entry per rejected element. A rejected element never aborts the others.
+@Getter
+@Setter
+@NoArgsConstructor
+public class BulkResult {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<Long> ids = new ArrayList<>();
+    private List<BulkError> errors = new ArrayList<>();
+
+    public void addSuccess(Long id) {
+        total++;
+        succeeded++;
+        ids.add(id);
+    }
+
+    public void addError(int index, Long id, List<String> messages) {
+        total++;
+        failed++;
+        errors.add(new BulkError(index, id, messages));
+    }
+}
@@ -0,0 +1,22 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Second-level and query cache counters from Hibernate's statistics, since the application started
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class HibernateCacheStats {
+    private long itemHitCount;
+    private long itemMissCount;
+    private long itemPutCount;
+    private double itemHitRatio;
+    private long queryCacheHitCount;
+    private long queryCacheMissCount;
+    private long queryCachePutCount;
+    private double queryCacheHitRatio;
+}
@@ -0,0 +1,42 @@
+package com.siemens.internship.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of an import. Only counts and the first errors are kept, so the result has the same size for any upload.
+@Getter
+@Setter
+@NoArgsConstructor
+public class ImportResult {
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long total;
+    private long imported;
+    private long failed;
+    private List<BulkError> errors = new ArrayList<>();
+    private long durationMillis;
+    private double rowsPerSecond;
+
+    public void addImported(int count) {
+        total += count;
+        imported += count;
+    }
+
+    public void addError(int index, Long id, List<String> messages) {
+        total++;
+        failed++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(new BulkError(index, id, messages));
+        }
+    }
+
+    public void finish(Duration duration) {
+        durationMillis = duration.toMillis();
+        rowsPerSecond = duration.isZero() ? 0 : total / (duration.toNanos() / 1_000_000_000.0);
+    }
+}
@@ -1,37 +1,78 @@
 package com.siemens.internship.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import java.util.Locale;
 
 @Entity
+// Cached in Hibernate's second-level cache when it is enabled; JPQL bulk updates on Item (set-based processing) evict
+// the region of this node, the entries of other nodes expire (application.conf). The region name has no dots,
+// which the JCache provider would read as a path into its configuration
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Item.CACHE_REGION)
+// (pending, id) lets incremental processing seek straight to the items that are not PROCESSED yet, in ID order.
+// Each search filter has an index ending with the ID, so a filtered keyset page is one index range scan
+@Table(indexes = {
+        @Index(name = "idx_item_pending_id", columnList = "pending, id"),
+        @Index(name = "idx_item_status_id", columnList = "status, id"),
+        @Index(name = "idx_item_email_domain_id", columnList = "email_domain, id"),
+        @Index(name = "idx_item_name_id", columnList = "name, id")
+})
 @Getter
 @Setter
-@AllArgsConstructor
 @NoArgsConstructor
 public class Item {
+
+    public static final String CACHE_REGION = "item";
+
+    // Pooled sequence: Hibernate reserves 50 IDs per sequence call, so inserts need no round trip per row
+    // and can be sent as JDBC batches (an IDENTITY column would disable insert batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name cannot be blank")
     @Size(max = 100, message = "Name cannot exceed 100 characters")
+    @Column(length = 100)
     private String name;
 
     @Size(max = 500, message = "Description cannot exceed 500 characters")
+    @Column(length = 500)
     private String description;
+
+    @Setter(AccessLevel.NONE)
     private String status;
 
+    // Whether the item still has to be processed, kept in sync by setStatus. A NOT NULL flag rather than
+    // "status IS NULL OR status <> 'PROCESSED'", which no index can seek on: pending = true AND id > ? is one range scan
+    // over exactly the items that changed since they were processed
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(nullable = false)
+    private boolean pending = true;
+
     @NotNull(message = "Email cannot be null")
     // Added email regex validation using jakarta validation pattern (it takes in a regex)
     @Pattern(
@@ -39,4 +80,49 @@ public class Item {
             message = "Email must match the pattern: user@domain.com"
     )
     private String email;
+
+    // Lower-case part of the email after the '@', kept in sync by setEmail so that searching by domain
+    // is an index lookup instead of a LIKE '%@domain' scan over every row
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    @Column(name = "email_domain")
+    private String emailDomain;
+
+    // Optimistic locking: every update checks and increments it, so concurrent writers cannot overwrite each other.
+    // Also the ETag of the item
+    @Version
+    private Long version;
+
+    public Item(Long id, String name, String description, String status, String email, Long version) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        setStatus(status);
+        setEmail(email);
+        this.version = version;
+    }
+
+    // A new item, or an item whose version is not known
+    public Item(Long id, String name, String description, String status, String email) {
+        this(id, name, description, status, email, null);
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+        this.pending = isPendingStatus(status);
+    }
+
+    public static boolean isPendingStatus(String status) {
+        return !"PROCESSED".equals(status);
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+        this.emailDomain = domainOf(email);
+    }
+
+    public static String domainOf(String email) {
+        int at = email == null ? -1 : email.lastIndexOf('@');
+        return at < 0 ? null : email.substring(at + 1).toLowerCase(Locale.ROOT);
+    }
 }
\ No newline at end of file
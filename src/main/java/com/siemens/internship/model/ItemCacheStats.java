@@ -0,0 +1,19 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Counters of the item cache since the application started
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemCacheStats {
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+}
@@ -0,0 +1,26 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// One entry of the item change feed. The offset orders the changes and is the SSE event ID to resume from.
+// item holds the new state for CREATED and UPDATED, status the new status for every type but DELETED
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemChange {
+
+    public enum Type {CREATED, UPDATED, STATUS_CHANGED, DELETED}
+
+    private long offset;
+    private Type type;
+    private Long itemId;
+    private String status;
+    private Item item;
+    private Instant timestamp;
+}
@@ -0,0 +1,24 @@
+package com.siemens.internship.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.nio.file.Path;
+import java.time.Instant;
+
+// A CSV snapshot of the item table written by the export. The file itself is not part of the API response.
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemExport {
+    @JsonIgnore
+    private Path file;
+    private long rows;
+    private long sizeBytes;
+    private Instant createdAt;
+    private long durationMillis;
+}
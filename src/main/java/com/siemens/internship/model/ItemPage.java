@@ -0,0 +1,19 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// One page of a keyset (cursor) paginated item listing.
+// nextCursor is an opaque token to pass back for the following page, null when this is the last page.
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemPage {
+    private List<Item> items;
+    private String nextCursor;
+}
@@ -0,0 +1,18 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+// One page of a keyset paginated search, see ItemPage for the cursor
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemSearchPage {
+    private List<ItemSummary> items;
+    private String nextCursor;
+}
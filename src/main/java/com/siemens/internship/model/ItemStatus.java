@@ -0,0 +1,16 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Result of processing one item: what callers of the process endpoint use, instead of the whole item
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemStatus {
+    private Long id;
+    private String status;
+}
@@ -0,0 +1,19 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Search result row: the columns a listing needs, selected directly into this class, without the description
+// and without loading (or dirty checking) an Item entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemSummary {
+    private Long id;
+    private String name;
+    private String status;
+    private String email;
+}
@@ -0,0 +1,27 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// The single row counting the writes to the item table, shared by every node through the database.
+// Every transaction that writes items increments it once (see ItemTableRevisionIntegrator), so reading it is
+// a primary key lookup however large the table is. It starts at the creation time in milliseconds, so a
+// recreated table never hands out a revision that was already used before
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemTableRevision {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private long revision;
+}
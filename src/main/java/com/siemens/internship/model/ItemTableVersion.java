@@ -0,0 +1,15 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Fingerprint of the whole item table: the revision of ItemTableRevision, which every committed write increments
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemTableVersion {
+    private Long revision;
+}
@@ -0,0 +1,16 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// One result of the full-text search, with its BM25 relevance (higher is better)
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ItemTextHit {
+    private Item item;
+    private double score;
+}
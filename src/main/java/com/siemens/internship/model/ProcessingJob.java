@@ -0,0 +1,49 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// A persistent processing run over the item table.
+// lastProcessedId is the checkpoint: every item with an ID up to it has been handled (processed or failed),
+// and the counts only cover those items, so a run can be resumed from there without counting anything twice.
+// A node runs a job while it holds its lease, renewed with every checkpoint; a RUNNING job whose lease expired
+// (its node died) can be resumed by another node.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessingJob {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private boolean pendingOnly; // Only processes the items that were not PROCESSED yet
+    private boolean partitioned; // Split into ProcessingPartitions claimed by every node, lastProcessedId is not used then
+    private long totalCount; // Number of items to process when the job was started
+    private long processedCount;
+    private long failedCount;
+    private Long lastProcessedId;
+
+    private String owner; // Node ID of the current or last run, not used by partitioned jobs
+    private Instant leaseUntil;
+
+    private Instant startedAt;
+    private Instant runStartedAt; // Start of the current run, the job is resumed in a new run
+    private long handledAtRunStart; // processedCount + failedCount when the current run started, used for the throughput
+    private Instant finishedAt;
+}
@@ -0,0 +1,27 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// Progress of a processing job as returned by the API.
+// itemsPerSecond is measured over the current run, etaSeconds is null while it cannot be estimated yet.
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingJobProgress {
+    private Long id;
+    private ProcessingJob.Status status;
+    private long totalCount;
+    private long processedCount;
+    private long failedCount;
+    private Long lastProcessedId;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private double itemsPerSecond;
+    private Long etaSeconds;
+}
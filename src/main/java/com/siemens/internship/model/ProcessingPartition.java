@@ -0,0 +1,51 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+// An ID range of a partitioned processing job: the items with startId < id <= endId.
+// A node owns the range while its lease runs; a CLAIMED range whose lease expired (its node died)
+// can be claimed by another node, which processes it again from the start.
+@Entity
+@Table(indexes = @Index(name = "idx_processing_partition_status", columnList = "status, id"))
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProcessingPartition {
+
+    public enum Status { PENDING, CLAIMED, DONE }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    private Long jobId;
+    private Long startId; // Exclusive
+    private Long endId; // Inclusive
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    private String owner; // Node ID of the current or last claimant
+    private Instant leaseUntil;
+    private long processedCount;
+    private long failedCount;
+
+    public ProcessingPartition(Long jobId, Long startId, Long endId) {
+        this.jobId = jobId;
+        this.startId = startId;
+        this.endId = endId;
+        this.status = Status.PENDING;
+    }
+}
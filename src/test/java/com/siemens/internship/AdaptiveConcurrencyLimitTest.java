@@ -0,0 +1,94 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTest {
+
+    private static final long MILLIS = 1_000_000;
+
+    private static AdaptiveConcurrencyLimit limit(int initial, int min, int max) {
+        ItemProcessingProperties.Adaptive config = new ItemProcessingProperties.Adaptive();
+        config.setInitialLimit(initial);
+        config.setMinLimit(min);
+        config.setMaxLimit(max);
+        config.setBackoffRatio(0.5);
+        return new AdaptiveConcurrencyLimit(config);
+    }
+
+    @Test
+    void testGrowsWhileLatencyStaysLowAndStopsAtMax() {
+        AdaptiveConcurrencyLimit limit = limit(2, 1, 4);
+
+        for (int i = 0; i < 10; i++) {
+            limit.acquire();
+            limit.acquire();
+            limit.release(10 * MILLIS, false);
+            limit.release(10 * MILLIS, false);
+        }
+
+        assertEquals(4, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+    }
+
+    @Test
+    void testShrinksOnSlowChunkAndOnFailureButNotBelowMin() {
+        AdaptiveConcurrencyLimit limit = limit(8, 2, 8);
+        limit.acquire();
+        limit.release(10 * MILLIS, false); // Sets the baseline
+
+        limit.acquire();
+        limit.release(100 * MILLIS, false); // Far above twice the baseline
+        assertEquals(4, limit.getLimit());
+
+        limit.acquire();
+        limit.release(10 * MILLIS, true);
+        assertEquals(2, limit.getLimit());
+
+        limit.acquire();
+        limit.release(10 * MILLIS, true);
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void testShrinksWhenConnectionsWereWaitedFor() {
+        AdaptiveConcurrencyLimit limit = limit(8, 1, 8);
+
+        limit.acquire();
+        limit.recordPoolWait(500 * MILLIS);
+        limit.release(10 * MILLIS, false);
+
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void testDisabledLimitNeverChanges() {
+        ItemProcessingProperties.Adaptive config = new ItemProcessingProperties.Adaptive();
+        config.setEnabled(false);
+        config.setInitialLimit(3);
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(config);
+
+        limit.acquire();
+        limit.release(10 * MILLIS, true);
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    void testAcquireBlocksAtTheLimit() throws Exception {
+        AdaptiveConcurrencyLimit limit = limit(1, 1, 1);
+        limit.acquire();
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(limit::acquire);
+        assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+
+        limit.release(10 * MILLIS, false);
+        blocked.get(3, TimeUnit.SECONDS);
+        assertEquals(1, limit.getInFlight());
+    }
+}
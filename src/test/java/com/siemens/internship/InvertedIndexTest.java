@@ -0,0 +1,89 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private static List<Long> ids(List<InvertedIndex.Hit> hits) {
+        return hits.stream().map(InvertedIndex.Hit::itemId).toList();
+    }
+
+    @Test
+    void testTokenize() {
+        assertEquals(List.of("red", "usb", "c", "cable", "2m"), InvertedIndex.tokenize("Red USB-C cable, 2m!"));
+        assertTrue(InvertedIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void testMatchesEveryKeywordAndRanksNameFirst() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, "Cable", "A red cable");
+        index.put(2L, "Red lamp", "A cable powered lamp");
+        index.put(3L, "Blue lamp", "Not related");
+
+        assertEquals(List.of(1L, 2L), ids(index.search("red cable", 10)));
+        assertEquals(List.of(2L, 3L), ids(index.search("LAMP", 10)));
+        assertEquals(List.of(2L), ids(index.search("lamp red", 10)));
+        assertTrue(index.search("green", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testRarerTermsScoreHigher() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 10; id++) {
+            index.put(id, "Item", id == 7 ? "special" : "common");
+        }
+        index.put(11L, "Item", "common special");
+
+        List<InvertedIndex.Hit> hits = index.search("item special", 10);
+
+        assertEquals(List.of(7L, 11L), ids(hits));
+        assertTrue(hits.get(0).score() > hits.get(1).score()); // Shorter document, same terms
+    }
+
+    @Test
+    void testLimitKeepsTheBestHits() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, "Other", "lamp");
+        index.put(2L, "Lamp", "lamp");
+        index.put(3L, "Lamp", "other");
+
+        assertEquals(List.of(2L, 3L), ids(index.search("lamp", 2)));
+    }
+
+    @Test
+    void testPutReplacesAndRemoveDeletes() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, "Red lamp", null);
+        index.put(1L, "Blue lamp", null);
+        index.put(2L, "Red cable", null);
+        index.remove(2L);
+        index.remove(42L); // Unknown items are ignored
+
+        assertTrue(index.search("red", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("blue lamp", 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testCompactionKeepsLiveDocuments() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 0; id < 3000; id++) {
+            index.put(id, "Item " + id, id % 2 == 0 ? "even" : "odd");
+        }
+        for (long id = 0; id < 3000; id += 2) {
+            index.put(id, "Item " + id, "renamed"); // Deletes half the documents, which triggers compactions
+        }
+
+        assertEquals(3000, index.size());
+        assertTrue(index.search("even", 10).isEmpty());
+        assertEquals(1500, index.search("renamed", 5000).size());
+        assertEquals(List.of(2998L), ids(index.search("item 2998", 10)));
+        assertEquals(List.of(2999L), ids(index.search("odd 2999", 10)));
+    }
+}
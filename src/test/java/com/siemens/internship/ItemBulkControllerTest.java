@@ -0,0 +1,188 @@
+package com.siemens.internship;
+
+import com.jayway.jsonpath.JsonPath;
+import com.siemens.internship.model.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Small chunks so that the bodies below span several transactions
+@SpringBootTest(properties = "item.bulk.chunk-size=2")
+@AutoConfigureMockMvc
+class ItemBulkControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testBulkCreate_ReportsInvalidElements() throws Exception {
+        String body = """
+                [{"name":"One","description":"d","status":"NEW","email":"a@b.com"},
+                 {"name":"","description":"d","status":"NEW","email":"a@b.com"},
+                 {"name":"Three","description":"d","status":"NEW","email":"a@b.com"},
+                 {"name":"Four","description":"d","status":"NEW","email":"not-an-email"},
+                 {"name":"Five","description":"d","status":"NEW","email":"e@f.com"}]""";
+
+        mockMvc.perform(post("/api/items/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.succeeded").value(3))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andExpect(jsonPath("$.ids.length()").value(3))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.errors[1].index").value(3));
+
+        assertEquals(3, itemRepository.count());
+    }
+
+    @Test
+    void testBulkCreate_Ndjson() throws Exception {
+        String body = """
+                {"name":"One","description":"d","status":"NEW","email":"a@b.com"}
+                {"name":"Two","description":"d","status":"NEW","email":"b@c.com"}
+                {"name":"Three","description":"d","status":"NEW","email":"c@d.com"}
+                """;
+
+        mockMvc.perform(post("/api/items/bulk").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(3))
+                .andExpect(jsonPath("$.errors").isEmpty());
+
+        assertEquals(3, itemRepository.count());
+    }
+
+    @Test
+    void testBulkCreate_MalformedInputKeepsEarlierElements() throws Exception {
+        String body = """
+                {"name":"One","description":"d","status":"NEW","email":"a@b.com"}
+                {"name":"Two",
+                """;
+
+        mockMvc.perform(post("/api/items/bulk").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.errors[0].index").value(1));
+
+        assertEquals(1, itemRepository.count());
+    }
+
+    @Test
+    void testBulkUpdate_UnknownIdIsReported() throws Exception {
+        Item saved = itemRepository.save(new Item(null, "One", "d", "NEW", "a@b.com"));
+        String body = """
+                [{"id":%d,"name":"Renamed","description":"d","status":"PROCESSED","email":"a@b.com"},
+                 {"id":999999,"name":"Ghost","description":"d","status":"NEW","email":"a@b.com"},
+                 {"name":"No id","description":"d","status":"NEW","email":"a@b.com"}]""".formatted(saved.getId());
+
+        String response = mockMvc.perform(put("/api/items/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(2))
+                .andReturn().getResponse().getContentAsString();
+
+        List<Integer> failedIndexes = JsonPath.read(response, "$.errors[*].index");
+        assertEquals(List.of(1, 2), failedIndexes);
+        Item updated = itemRepository.findById(saved.getId()).orElseThrow();
+        assertEquals("Renamed", updated.getName());
+        assertEquals("PROCESSED", updated.getStatus());
+    }
+
+    @Test
+    void testBulkDelete() throws Exception {
+        List<Item> saved = itemRepository.saveAll(List.of(
+                new Item(null, "One", "d", "NEW", "a@b.com"),
+                new Item(null, "Two", "d", "NEW", "b@c.com"),
+                new Item(null, "Three", "d", "NEW", "c@d.com")));
+        String body = "[%d, %d, 999999]".formatted(saved.get(0).getId(), saved.get(1).getId());
+
+        mockMvc.perform(delete("/api/items/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(2))
+                .andExpect(jsonPath("$.errors[0].id").value(999999));
+
+        assertEquals(1, itemRepository.count());
+        assertFalse(itemRepository.existsById(saved.get(0).getId()));
+    }
+
+    @Test
+    void testImportNdjson() throws Exception {
+        String body = """
+                {"name":"One","description":"d","status":"NEW","email":"a@b.com"}
+                {"name":"Two","description":"d","status":"NEW","email":"invalid"}
+                {"name":"Three","description":"d","status":"NEW","email":"c@d.com"}
+                {"name":"Four","description":"d","status":"NEW","email":"d@e.com"}
+                """;
+
+        mockMvc.perform(post("/api/items/import").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(4))
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.rowsPerSecond").isNumber());
+
+        assertEquals(3, itemRepository.count());
+    }
+
+    @Test
+    void testImport_ChunkFailingInTheDatabaseIsReportedPerRow() throws Exception {
+        String longDescription = "d".repeat(500); // The longest valid description must fit its column
+        String longEmail = "e".repeat(300) + "@b.com"; // Valid, but longer than the email column
+        String body = """
+                {"name":"One","description":"%s","status":"NEW","email":"a@b.com"}
+                {"name":"Two","description":"d","status":"NEW","email":"b@c.com"}
+                {"name":"Three","description":"d","status":"NEW","email":"%s"}
+                {"name":"Four","description":"d","status":"NEW","email":"d@e.com"}
+                {"name":"Five","description":"d","status":"NEW","email":"e@f.com"}
+                """.formatted(longDescription, longEmail);
+
+        mockMvc.perform(post("/api/items/import").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.failed").value(2)) // The whole second chunk
+                .andExpect(jsonPath("$.errors[0].index").value(2))
+                .andExpect(jsonPath("$.errors[1].index").value(3));
+
+        assertEquals(3, itemRepository.count());
+    }
+
+    @Test
+    void testImportCsv() throws Exception {
+        String body = """
+                name,description,status,email
+                One,first,NEW,a@b.com
+                Two,second,PROCESSED,b@c.com
+                Three,third,NEW,c@d.com
+                """;
+
+        mockMvc.perform(post("/api/items/import").contentType("text/csv").content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(3))
+                .andExpect(jsonPath("$.errors").isEmpty());
+
+        List<Item> items = itemRepository.findAll();
+        assertEquals(3, items.size());
+        assertEquals(1, items.stream().filter(item -> "PROCESSED".equals(item.getStatus())).count());
+    }
+}
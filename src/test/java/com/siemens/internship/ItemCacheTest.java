@@ -0,0 +1,52 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemCacheTest {
+
+    private final ItemCache itemCache = new ItemCache(100, Duration.ofMinutes(1));
+
+    private static Item item(String name, Long version) {
+        return new Item(1L, name, "desc", "NEW", "a@b.com", version);
+    }
+
+    private Item cached() {
+        return itemCache.get(1L, id -> Optional.empty()).orElse(null);
+    }
+
+    @Test
+    void testPut_KeepsHigherVersion() {
+        itemCache.put(item("Newer", 3L));
+        itemCache.put(item("Older", 2L)); // The save that finished first is put last
+
+        assertEquals("Newer", cached().getName());
+
+        itemCache.put(item("Newest", 4L));
+
+        assertEquals("Newest", cached().getName());
+    }
+
+    @Test
+    void testPut_WithoutVersionInvalidates() {
+        itemCache.put(item("Versioned", 1L));
+
+        itemCache.put(item("Unversioned", null));
+
+        assertNull(cached());
+    }
+
+    @Test
+    void testGet_ReturnsCopy() {
+        itemCache.put(item("Original", 1L));
+
+        cached().setName("Changed");
+
+        assertEquals("Original", cached().getName());
+    }
+}
@@ -0,0 +1,121 @@
+package com.siemens.internship;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A small ring so that the RESET case only needs a few writes
+@SpringBootTest(properties = "item.changes.capacity=3")
+@AutoConfigureMockMvc
+class ItemChangeFeedTest {
+
+    private static final String ITEM = """
+            {"name":"One","description":"d","status":"NEW","email":"a@b.com"}""";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemChangeFeed changeFeed;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testReplaysChangesFromOffset() throws Exception {
+        long start = changeFeed.getNextOffset();
+        String created = mockMvc.perform(post("/api/items").contentType(MediaType.APPLICATION_JSON).content(ITEM))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Integer id = JsonPath.read(created, "$.id");
+        mockMvc.perform(delete("/api/items/" + id)).andExpect(status().isNoContent());
+
+        MvcResult result = mockMvc.perform(get("/api/items/changes").param("offset", String.valueOf(start)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String events = awaitContent(result, "event:DELETED");
+        assertTrue(events.contains("id:" + start + "\nevent:CREATED\n"));
+        assertTrue(events.contains("id:" + (start + 1) + "\nevent:DELETED\n"));
+    }
+
+    @Test
+    void testResumesAfterLastEventId() throws Exception {
+        long start = changeFeed.getNextOffset();
+        mockMvc.perform(post("/api/items").contentType(MediaType.APPLICATION_JSON).content(ITEM));
+        mockMvc.perform(post("/api/items").contentType(MediaType.APPLICATION_JSON).content(ITEM));
+
+        MvcResult result = mockMvc.perform(get("/api/items/changes").header("Last-Event-ID", start))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String events = awaitContent(result, "id:" + (start + 1));
+        assertFalse(events.contains("id:" + start + "\n")); // Already received by the client
+    }
+
+    @Test
+    void testFollowsNewChanges() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/items/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(post("/api/items").contentType(MediaType.APPLICATION_JSON).content(ITEM));
+
+        assertTrue(awaitContent(result, "event:CREATED").contains("\"name\":\"One\""));
+    }
+
+    @Test
+    void testResetWhenOffsetIsNoLongerRetained() throws Exception {
+        long start = changeFeed.getNextOffset();
+        String body = "[" + String.join(",", ITEM, ITEM, ITEM, ITEM) + "]"; // One more change than the ring holds
+        mockMvc.perform(post("/api/items/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+
+        MvcResult result = mockMvc.perform(get("/api/items/changes").param("offset", String.valueOf(start)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String events = awaitContent(result, "id:" + (start + 3));
+        assertTrue(events.startsWith("event:RESET\n"));
+    }
+
+    @Test
+    void testNegativeOffset() throws Exception {
+        mockMvc.perform(get("/api/items/changes").param("offset", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Events are sent by the feed's dispatcher thread, so they show up in the response shortly after
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            String content = result.getResponse().getContentAsString();
+            if (content.contains(expected)) {
+                return content;
+            }
+            Thread.sleep(20);
+        }
+        fail("No '" + expected + "' in the change feed: " + result.getResponse().getContentAsString());
+        return null;
+    }
+}
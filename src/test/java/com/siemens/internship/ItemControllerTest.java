@@ -1,7 +1,15 @@
 package com.siemens.internship;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.exception.InvalidRequestException;
+import com.siemens.internship.exception.PreconditionFailedException;
+import com.siemens.internship.exception.ResourceNotFoundException;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemPage;
+import com.siemens.internship.model.ItemSearchPage;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.model.ItemSummary;
+import com.siemens.internship.model.ItemTableVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,12 +18,22 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -37,18 +55,89 @@ class ItemControllerTest {
 
     @BeforeEach
     void setup() {
-        item = new Item(1L, "Test Item", "Description", "NEW", "test@example.com");
+        item = new Item(1L, "Test Item", "Description", "NEW", "test@example.com", 3L);
+        when(itemService.getTableVersion()).thenReturn(new ItemTableVersion(1L));
     }
 
     @Test
     void testGetAllItems() throws Exception {
-        when(itemService.findAll()).thenReturn(List.of(item));
+        mockForEachItem(item);
 
-        mockMvc.perform(get("/api/items"))
+        MvcResult result = mockMvc.perform(get("/api/items"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].name").value("Test Item"));
     }
 
+    @Test
+    void testGetAllItems_Ndjson() throws Exception {
+        Item second = new Item(2L, "Second", "Description", "NEW", "second@example.com");
+        mockForEachItem(item, second);
+
+        MvcResult result = mockMvc.perform(get("/api/items").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Second", objectMapper.readValue(lines[1], Item.class).getName());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testGetAllItems_NotModified() throws Exception {
+        mockMvc.perform(get("/api/items").header("If-None-Match", "\"items-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"items-1\""))
+                .andExpect(content().string(""));
+
+        verify(itemService, never()).forEachItem(any()); // No item is read
+    }
+
+    @Test
+    void testGetAllItems_ModifiedSinceETag() throws Exception {
+        mockForEachItem(item);
+        when(itemService.getTableVersion()).thenReturn(new ItemTableVersion(2L)); // An item was added
+
+        MvcResult result = mockMvc.perform(get("/api/items").header("If-None-Match", "\"items-1\""))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("ETag", "\"items-2\""))
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Test Item"));
+    }
+
+    @Test
+    void testGetAllItems_NdjsonHasItsOwnETag() throws Exception {
+        mockForEachItem(item);
+
+        mockMvc.perform(get("/api/items").accept(MediaType.APPLICATION_NDJSON)
+                        .header("If-None-Match", "\"items-1\""))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("ETag", "\"items-1-ndjson\""));
+    }
+
+    private void mockForEachItem(Item... items) {
+        doAnswer(invocation -> {
+            Consumer<Item> action = invocation.getArgument(0);
+            for (Item each : items) {
+                action.accept(each);
+            }
+            return null;
+        }).when(itemService).forEachItem(any(Consumer.class));
+    }
+
     @Test
     void testCreateItem_Valid() throws Exception {
         when(itemService.save(any(Item.class))).thenReturn(item);
@@ -60,6 +149,19 @@ class ItemControllerTest {
                 .andExpect(jsonPath("$.email").value("test@example.com"));
     }
 
+    @Test
+    void testCreateItem_IgnoresClientId() throws Exception {
+        when(itemService.save(any(Item.class))).thenReturn(item);
+        item.setId(42L);
+
+        mockMvc.perform(post("/api/items")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isCreated());
+
+        verify(itemService).save(argThat(created -> created.getId() == null && created.getVersion() == null));
+    }
+
     @Test
     void testCreateItem_Invalid() throws Exception {
         item.setEmail("invalid_email");
@@ -77,9 +179,19 @@ class ItemControllerTest {
 
         mockMvc.perform(get("/api/items/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
                 .andExpect(jsonPath("$.name").value("Test Item"));
     }
 
+    @Test
+    void testGetItemById_NotModified() throws Exception {
+        when(itemService.findById(1L)).thenReturn(Optional.of(item));
+
+        mockMvc.perform(get("/api/items/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void testGetItemById_NotFound() throws Exception {
         when(itemService.findById(1L)).thenReturn(Optional.empty());
@@ -90,18 +202,43 @@ class ItemControllerTest {
 
     @Test
     void testUpdateItem_Valid() throws Exception {
-        when(itemService.existsById(1L)).thenReturn(true);
-        when(itemService.save(any(Item.class))).thenReturn(item);
+        when(itemService.update(eq(1L), any(Item.class), isNull(), eq(true))).thenReturn(item);
+
+        mockMvc.perform(put("/api/items/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void testUpdateItem_BufferedHasNoETag() throws Exception {
+        Item buffered = new Item(1L, "Buffered", "desc", "NEW", "test@example.com"); // No version until it is flushed
+        when(itemService.update(eq(1L), any(Item.class), isNull(), eq(true))).thenReturn(buffered);
 
         mockMvc.perform(put("/api/items/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(item)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void testUpdateItem_PreferRepresentationSkipsWriteBehind() throws Exception {
+        when(itemService.update(eq(1L), any(Item.class), isNull(), eq(false))).thenReturn(item);
+
+        mockMvc.perform(put("/api/items/1")
+                        .header("Prefer", "return=representation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
     }
 
     @Test
     void testUpdateItem_NotFound() throws Exception {
-        when(itemService.existsById(1L)).thenReturn(false);
+        when(itemService.update(eq(1L), any(Item.class), isNull(), eq(true)))
+                .thenThrow(new ResourceNotFoundException("Item not found with id: 1"));
 
         mockMvc.perform(put("/api/items/1")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -109,6 +246,27 @@ class ItemControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void testUpdateItem_IfMatchStale() throws Exception {
+        when(itemService.update(eq(1L), any(Item.class), eq(2L), eq(true)))
+                .thenThrow(new PreconditionFailedException("Item 1 was modified, the current version is 3"));
+
+        mockMvc.perform(put("/api/items/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void testUpdateItem_IfMatchNotAVersion() throws Exception {
+        mockMvc.perform(put("/api/items/1")
+                        .header("If-Match", "\"abc\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(item)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
     @Test
     void testDeleteItem_Success() throws Exception {
         when(itemService.existsById(1L)).thenReturn(true);
@@ -125,4 +283,62 @@ class ItemControllerTest {
         mockMvc.perform(delete("/api/items/1"))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void testProcessItems_ReturnsIdsAndStatuses() throws Exception {
+        when(itemService.processItemsAsync(false)).thenReturn(
+                CompletableFuture.completedFuture(List.of(new ItemStatus(1L, "PROCESSED"))));
+
+        MvcResult result = mockMvc.perform(get("/api/items/process"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":1,\"status\":\"PROCESSED\"}]", true));
+    }
+
+    @Test
+    void testMarkItemsProcessed() throws Exception {
+        when(itemService.markAllProcessedAsync(false)).thenReturn(CompletableFuture.completedFuture(List.of(1L, 2L)));
+
+        MvcResult result = mockMvc.perform(get("/api/items/process/ids"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[1]").value(2));
+    }
+
+    @Test
+    void testGetItemPage() throws Exception {
+        when(itemService.findPage(null, 1)).thenReturn(new ItemPage(List.of(item), "MQ"));
+
+        mockMvc.perform(get("/api/items/page").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].name").value("Test Item"))
+                .andExpect(jsonPath("$.nextCursor").value("MQ"));
+    }
+
+    @Test
+    void testGetItemPage_InvalidCursor() throws Exception {
+        when(itemService.findPage("bad", 100)).thenThrow(new InvalidRequestException("Invalid cursor: bad"));
+
+        mockMvc.perform(get("/api/items/page").param("cursor", "bad"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Invalid cursor: bad"));
+    }
+
+    @Test
+    void testSearchItems() throws Exception {
+        when(itemService.search("NEW", "example.com", null, null, 100)).thenReturn(
+                new ItemSearchPage(List.of(new ItemSummary(1L, "Test Item", "NEW", "test@example.com")), null));
+
+        mockMvc.perform(get("/api/items/search").param("status", "NEW").param("emailDomain", "example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].description").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
 }
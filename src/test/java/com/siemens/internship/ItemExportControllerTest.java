@@ -0,0 +1,77 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemExportControllerTest {
+
+    @TempDir
+    static Path exportDirectory;
+
+    @DynamicPropertySource
+    static void exportProperties(DynamicPropertyRegistry registry) {
+        registry.add("item.export.directory", () -> exportDirectory.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testExportWritesCsvSnapshot() throws Exception {
+        List<Item> saved = itemRepository.saveAll(List.of(
+                new Item(null, "One", "plain", "NEW", "a@b.com"),
+                new Item(null, "Two", "with, comma and \"quotes\"", null, "b@c.com")));
+
+        mockMvc.perform(post("/api/items/export"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/items/export/file"))
+                .andExpect(jsonPath("$.rows").value(2))
+                .andExpect(jsonPath("$.file").doesNotExist());
+
+        String csv = mockMvc.perform(get("/api/items/export/file"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(CsvItemWriter.HEADER + "\n"
+                + saved.get(0).getId() + ",One,plain,NEW,a@b.com\n"
+                + saved.get(1).getId() + ",Two,\"with, comma and \"\"quotes\"\"\",,b@c.com\n", csv);
+    }
+
+    @Test
+    void testLatestExportReplacesPrevious() throws Exception {
+        mockMvc.perform(post("/api/items/export")).andExpect(status().isCreated());
+        itemRepository.save(new Item(null, "Added", "d", "NEW", "a@b.com"));
+        mockMvc.perform(post("/api/items/export")).andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/items/export"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(1));
+    }
+}
@@ -0,0 +1,32 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.siemens.internship.model.Item;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ItemJsonSerializerTest {
+
+    private final ObjectMapper reflective = new ObjectMapper();
+    private final ObjectMapper handWritten = new ObjectMapper()
+            .registerModule(new SimpleModule().addSerializer(Item.class, new ItemJsonSerializer()));
+
+    static List<Item> items() {
+        return List.of(
+                new Item(1L, "Lamp", "A \"warm\" lamp\nwith \u00fcn\u00efcode", "NEW", "a@b.com", 3L),
+                new Item(null, "New", null, null, "a@b.com"),
+                new Item());
+    }
+
+    // Guards against a field added to Item but not to the serializer
+    @ParameterizedTest
+    @MethodSource("items")
+    void testSameOutputAsTheBeanSerializer(Item item) throws Exception {
+        assertEquals(reflective.writeValueAsString(item), handWritten.writeValueAsString(item));
+    }
+}
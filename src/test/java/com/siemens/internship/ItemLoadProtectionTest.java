@@ -0,0 +1,134 @@
+package com.siemens.internship;
+
+import com.siemens.internship.exception.ConflictException;
+import com.siemens.internship.exception.ServiceOverloadedException;
+import com.siemens.internship.exception.TooManyRequestsException;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemLoadProtectionTest {
+
+    @Mock
+    private ItemProcessingPipeline processingPipeline;
+
+    @Mock
+    private HikariDataSource dataSource;
+
+    private ItemLoadProtectionProperties properties;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void init() {
+        properties = new ItemLoadProtectionProperties();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    private ItemLoadProtection createProtection() {
+        ItemLoadProtection protection = new ItemLoadProtection(properties, meterRegistry);
+        ReflectionTestUtils.setField(protection, "processingPipeline", processingPipeline);
+        ReflectionTestUtils.setField(protection, "dataSource", dataSource);
+        return protection;
+    }
+
+    @Test
+    void testSingleFlight_CoalescesIdenticalRuns() {
+        ItemLoadProtection protection = createProtection();
+        CompletableFuture<List<Long>> result = new CompletableFuture<>();
+        AtomicInteger started = new AtomicInteger();
+
+        CompletableFuture<List<Long>> first = protection.singleFlight("run", () -> {
+            started.incrementAndGet();
+            return result;
+        });
+        CompletableFuture<List<Long>> second = protection.singleFlight("run", () -> {
+            started.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+        result.complete(List.of(1L));
+
+        assertEquals(1, started.get());
+        assertEquals(List.of(1L), first.join());
+        assertEquals(List.of(1L), second.join());
+        assertEquals(1, meterRegistry.counter("items.load-protection.coalesced").count());
+
+        protection.singleFlight("run", () -> {
+            started.incrementAndGet(); // The previous run is over, so this one starts again
+            return CompletableFuture.completedFuture(List.of());
+        });
+        assertEquals(2, started.get());
+    }
+
+    @Test
+    void testSingleFlight_RejectsOverlappingRun() {
+        properties.setProcessingOverlap(ItemLoadProtectionProperties.Overlap.REJECT);
+        ItemLoadProtection protection = createProtection();
+        protection.singleFlight("run", CompletableFuture::new);
+
+        assertThrows(ConflictException.class, () -> protection.singleFlight("run", CompletableFuture::new));
+        protection.singleFlight("other", CompletableFuture::new); // A different run is not an overlap
+    }
+
+    @Test
+    void testAdmit_RateLimitedPerEndpoint() {
+        properties.getRateLimits().put(ItemLoadProtection.WRITE, new ItemLoadProtectionProperties.RateLimit(0.5, 1));
+        ItemLoadProtection protection = createProtection();
+
+        protection.admit(ItemLoadProtection.WRITE);
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> protection.admit(ItemLoadProtection.WRITE));
+        assertEquals(2, ex.getRetryAfterSeconds());
+        protection.admit(ItemLoadProtection.BULK); // No limit configured
+    }
+
+    @Test
+    void testAdmit_ShedWhenConnectionsAreWaitedFor() {
+        properties.setMaxPoolWaiting(2);
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        when(pool.getThreadsAwaitingConnection()).thenReturn(2, 3);
+        ItemLoadProtection protection = createProtection();
+
+        protection.admit(ItemLoadProtection.WRITE);
+        ServiceOverloadedException ex = assertThrows(ServiceOverloadedException.class,
+                () -> protection.admit(ItemLoadProtection.WRITE));
+        assertEquals(1, ex.getRetryAfterSeconds());
+    }
+
+    @Test
+    void testAdmitProcessing_ShedWhenRunsAreQueued() {
+        when(processingPipeline.queuedRuns()).thenReturn(1);
+        ItemLoadProtection protection = createProtection();
+
+        assertThrows(ServiceOverloadedException.class,
+                () -> protection.singleFlight("run", CompletableFuture::new));
+        assertEquals(1, meterRegistry.counter("items.load-protection.rejected",
+                "endpoint", ItemLoadProtection.PROCESS, "reason", "queue_depth").count());
+    }
+
+    @Test
+    void testDisabled() {
+        properties.setEnabled(false);
+        properties.getRateLimits().put(ItemLoadProtection.WRITE, new ItemLoadProtectionProperties.RateLimit(1, 1));
+        ItemLoadProtection protection = createProtection();
+
+        protection.admit(ItemLoadProtection.WRITE);
+        protection.admit(ItemLoadProtection.WRITE);
+        verifyNoInteractions(processingPipeline, dataSource);
+    }
+}
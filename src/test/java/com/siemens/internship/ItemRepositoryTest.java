@@ -1,12 +1,22 @@
 package com.siemens.internship;
 
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemSummary;
+import com.siemens.internship.model.ItemTableRevision;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -17,6 +27,12 @@ class ItemRepositoryTest {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     void testSaveAndFindById() {
         Item item = new Item(null, "Repo Test", "desc", "NEW", "repo@test.com");
@@ -37,5 +53,133 @@ class ItemRepositoryTest {
 
         assertEquals(2, ids.size());
     }
-}
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED) // The revision is incremented when a write commits
+    void testFindTableVersion_ChangesOnEveryWrite() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> entityManager.persist(new ItemTableRevision(ItemTableRevision.ID, 10L)));
+        try {
+            assertEquals(10L, itemRepository.findTableVersion().getRevision());
+
+            Item item = itemRepository.save(new Item(null, "One", "desc", "NEW", "a@b.com"));
+            assertEquals(11L, itemRepository.findTableVersion().getRevision());
+
+            item.setName("Renamed");
+            itemRepository.save(item);
+            assertEquals(12L, itemRepository.findTableVersion().getRevision());
+
+            transactionTemplate.executeWithoutResult(status -> itemRepository.updateStatusByIds(List.of(item.getId()), "PROCESSED"));
+            assertEquals(13L, itemRepository.findTableVersion().getRevision());
+
+            // Many writes in one transaction count once
+            transactionTemplate.executeWithoutResult(status -> {
+                itemRepository.save(new Item(null, "Two", "desc", "NEW", "b@c.com"));
+                itemRepository.save(new Item(null, "Three", "desc", "NEW", "c@d.com"));
+            });
+            assertEquals(14L, itemRepository.findTableVersion().getRevision());
+
+            itemRepository.deleteById(item.getId());
+            assertEquals(15L, itemRepository.findTableVersion().getRevision());
+
+            // Nothing is incremented for a transaction that rolls back
+            transactionTemplate.executeWithoutResult(status -> {
+                itemRepository.save(new Item(null, "Four", "desc", "NEW", "d@e.com"));
+                status.setRollbackOnly();
+            });
+            assertEquals(15L, itemRepository.findTableVersion().getRevision());
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> {
+                entityManager.createQuery("DELETE FROM Item").executeUpdate();
+                entityManager.createQuery("DELETE FROM ItemTableRevision").executeUpdate();
+            });
+        }
+    }
+
+    @Test
+    void testSearch() {
+        Long first = itemRepository.save(new Item(null, "Alpha", "desc", "NEW", "a@Example.com")).getId();
+        Long second = itemRepository.save(new Item(null, "Alpine", "desc", "PROCESSED", "b@example.com")).getId();
+        Long third = itemRepository.save(new Item(null, "Beta", "desc", "NEW", "c@other.org")).getId();
+        Long fourth = itemRepository.save(new Item(null, "Al%", "desc", "NEW", "d@other.org")).getId();
+
+        assertEquals(List.of(first, third, fourth), searchIds("NEW", null, null, 0L));
+        assertEquals(List.of(first, second), searchIds(null, "example.com", null, 0L));
+        assertEquals(List.of(first, second, fourth), searchIds(null, null, "Al", 0L));
+        assertEquals(List.of(fourth), searchIds(null, null, "Al%", 0L)); // % is matched literally
+        assertEquals(List.of(first), searchIds("NEW", "example.com", "Al", 0L));
+        assertEquals(List.of(second), searchIds(null, "example.com", null, first)); // Next page
+    }
+
+    private List<Long> searchIds(String status, String emailDomain, String namePrefix, Long afterId) {
+        return itemRepository.search(status, emailDomain, namePrefix, afterId, 10).stream()
+                .map(ItemSummary::getId)
+                .toList();
+    }
+
+    @Test
+    void testStreamAll_ReturnsUnmanagedItems() {
+        itemRepository.save(new Item(null, "One", "desc", "NEW", "a@b.com"));
+        itemRepository.save(new Item(null, "Two", "desc", "NEW", "b@c.com"));
+
+        try (Stream<Item> items = itemRepository.streamAll()) {
+            List<Item> all = items.toList();
+            assertEquals(List.of("One", "Two"), all.stream().map(Item::getName).toList());
+            assertTrue(all.stream().noneMatch(entityManager::contains));
+            assertEquals(0L, all.get(0).getVersion());
+        }
+    }
+
+    @Test
+    void testFindIdsAfter() {
+        Long first = itemRepository.save(new Item(null, "One", "desc", "NEW", "a@b.com")).getId();
+        Long second = itemRepository.save(new Item(null, "Two", "desc", "NEW", "b@c.com")).getId();
+        Long third = itemRepository.save(new Item(null, "Three", "desc", "NEW", "c@d.com")).getId();
+
+        assertEquals(List.of(first, second), itemRepository.findIdsAfter(0L, PageRequest.of(0, 2)));
+        assertEquals(List.of(third), itemRepository.findIdsAfter(second, PageRequest.of(0, 2)));
+        assertTrue(itemRepository.findIdsAfter(third, PageRequest.of(0, 2)).isEmpty());
+    }
+
+    @Test
+    void testUpdateStatusByIds() {
+        Long first = itemRepository.save(new Item(null, "One", "desc", "NEW", "a@b.com")).getId();
+        Long second = itemRepository.save(new Item(null, "Two", "desc", "NEW", "b@c.com")).getId();
+
+        int updated = itemRepository.updateStatusByIds(List.of(first), "PROCESSED");
+
+        assertEquals(1, updated);
+        assertEquals("PROCESSED", itemRepository.findById(first).get().getStatus());
+        assertEquals("NEW", itemRepository.findById(second).get().getStatus());
+    }
+
+    @Test
+    void testFindByIdGreaterThan() {
+        Long first = itemRepository.save(new Item(null, "One", "desc", "NEW", "a@b.com")).getId();
+        itemRepository.save(new Item(null, "Two", "desc", "NEW", "b@c.com"));
+        itemRepository.save(new Item(null, "Three", "desc", "NEW", "c@d.com"));
+
+        List<Item> page = itemRepository.findByIdGreaterThanOrderByIdAsc(first, Limit.of(1));
+
+        assertEquals(1, page.size());
+        assertEquals("Two", page.get(0).getName());
+    }
+
+    @Test
+    void testFindPendingIdsAfter() {
+        Long pending = itemRepository.save(new Item(null, "One", "desc", "NEW", "a@b.com")).getId();
+        itemRepository.save(new Item(null, "Two", "desc", "PROCESSED", "b@c.com"));
+        Long withoutStatus = itemRepository.save(new Item(null, "Three", "desc", null, "c@d.com")).getId();
+
+        assertEquals(List.of(pending, withoutStatus), itemRepository.findPendingIdsAfter(0L, PageRequest.of(0, 10)));
+        assertEquals(2, itemRepository.countPending());
+
+        itemRepository.updateStatusByIds(List.of(pending), "PROCESSED");
+        assertEquals(List.of(withoutStatus), itemRepository.findPendingIdsAfter(0L, PageRequest.of(0, 10)));
+
+        Item reopened = itemRepository.findById(pending).orElseThrow();
+        reopened.setStatus("NEW"); // Changed by a client after it was processed
+        itemRepository.flush();
+        assertEquals(List.of(pending, withoutStatus), itemRepository.findPendingIdsAfter(0L, PageRequest.of(0, 10)));
+    }
+}
@@ -0,0 +1,90 @@
+package com.siemens.internship;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.siemens.internship.model.HibernateCacheStats;
+import com.siemens.internship.model.Item;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The second-level and query caches are off by default, and the service cache is disabled so that every findById
+// reaches Hibernate
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "item.cache.maximum-size=0"
+})
+class ItemSecondLevelCacheTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testItemRegionExpires() {
+        RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().requireService(RegionFactory.class);
+        CaffeineConfiguration<?, ?> region = ((JCacheRegionFactory) regionFactory).getCacheManager()
+                .getCache(Item.CACHE_REGION).getConfiguration(CaffeineConfiguration.class);
+
+        assertEquals(Duration.ofMinutes(1).toNanos(), region.getExpireAfterWrite().orElseThrow());
+    }
+
+    @Test
+    void testFindByIdServedFromSecondLevelCache() {
+        Long id = itemRepository.save(new Item(null, "Cached", "desc", "NEW", "a@b.com")).getId();
+        itemRepository.findById(id); // Makes sure the item is in the cache
+
+        HibernateCacheStats before = itemService.getHibernateCacheStats();
+        itemService.findById(id);
+        itemService.findById(id);
+        HibernateCacheStats after = itemService.getHibernateCacheStats();
+
+        assertEquals(2, after.getItemHitCount() - before.getItemHitCount());
+        assertEquals(0, after.getItemMissCount() - before.getItemMissCount());
+    }
+
+    @Test
+    void testFindAllIdsQueryCacheInvalidatedByBulkUpdate() {
+        Long id = itemRepository.save(new Item(null, "Cached", "desc", "NEW", "a@b.com")).getId();
+        itemRepository.findAllIds();
+
+        HibernateCacheStats beforeHit = itemService.getHibernateCacheStats();
+        itemRepository.findAllIds();
+        HibernateCacheStats afterHit = itemService.getHibernateCacheStats();
+        assertEquals(1, afterHit.getQueryCacheHitCount() - beforeHit.getQueryCacheHitCount());
+
+        transactionTemplate.executeWithoutResult(status -> itemRepository.updateStatusByIds(List.of(id), "PROCESSED"));
+
+        List<Long> ids = itemRepository.findAllIds();
+        HibernateCacheStats afterUpdate = itemService.getHibernateCacheStats();
+        assertTrue(ids.contains(id));
+        assertEquals(afterHit.getQueryCacheHitCount(), afterUpdate.getQueryCacheHitCount()); // Re-read from the database
+        assertEquals("PROCESSED", itemRepository.findById(id).orElseThrow().getStatus()); // The entity region was evicted too
+    }
+}
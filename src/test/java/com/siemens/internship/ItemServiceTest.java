@@ -1,26 +1,44 @@
 package com.siemens.internship;
 
 import com.siemens.internship.exception.DataProcessingException;
+import com.siemens.internship.exception.InvalidRequestException;
+import com.siemens.internship.exception.PreconditionFailedException;
 import com.siemens.internship.exception.ResourceNotFoundException;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemPage;
+import com.siemens.internship.model.ItemSearchPage;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.model.ItemSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataAccessException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
-import static org.mockito.Mockito.doNothing;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ItemServiceTest {
@@ -30,10 +48,77 @@ class ItemServiceTest {
 
     private ItemService itemService;
 
+    private ItemProcessingPipeline pipeline;
+
+    private ItemCache itemCache;
+
+    private ItemChangeFeed changeFeed;
+
+    private ItemWriteBuffer writeBuffer;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     void init() {
-        itemService = new ItemService(5); // 5 threads for test
+        meterRegistry = new SimpleMeterRegistry();
+        transactionManager = mock(PlatformTransactionManager.class);
+        itemCache = new ItemCache(100, Duration.ofMinutes(1));
+        changeFeed = new ItemChangeFeed(100, Duration.ofMinutes(1));
+        writeBuffer = createWriteBuffer(false);
+        pipeline = createPipeline(ItemProcessingProperties.ExecutorMode.FIXED);
+
+        itemService = new ItemService();
         ReflectionTestUtils.setField(itemService, "itemRepository", itemRepository);
+        ReflectionTestUtils.setField(itemService, "processingPipeline", pipeline);
+        ReflectionTestUtils.setField(itemService, "itemCache", itemCache);
+        ReflectionTestUtils.setField(itemService, "changeFeed", changeFeed);
+        ReflectionTestUtils.setField(itemService, "writeBuffer", writeBuffer);
+        ReflectionTestUtils.setField(itemService, "itemMetrics", new ItemMetrics(meterRegistry));
+        ReflectionTestUtils.setField(itemService, "transactionTemplate", new TransactionTemplate(transactionManager));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+        changeFeed.shutdown();
+    }
+
+    // Chunks of 2 items and no simulated work for test
+    private ItemProcessingPipeline createPipeline(ItemProcessingProperties.ExecutorMode mode) {
+        ItemProcessingProperties properties = new ItemProcessingProperties();
+        properties.setChunkSize(2);
+        properties.setSimulatedWorkMs(0);
+        properties.setExecutor(mode);
+
+        ItemBatchProcessor batchProcessor = new ItemBatchProcessor();
+        ReflectionTestUtils.setField(batchProcessor, "itemRepository", itemRepository);
+
+        ItemProcessingPipeline processingPipeline = new ItemProcessingPipeline(properties, 5, meterRegistry);
+        ReflectionTestUtils.setField(processingPipeline, "itemRepository", itemRepository);
+        ReflectionTestUtils.setField(processingPipeline, "batchProcessor", batchProcessor);
+        ReflectionTestUtils.setField(processingPipeline, "itemCache", itemCache);
+        ReflectionTestUtils.setField(processingPipeline, "changeFeed", changeFeed);
+        ReflectionTestUtils.setField(processingPipeline, "writeBuffer", writeBuffer);
+        return processingPipeline;
+    }
+
+    // Never started, the tests flush it themselves
+    private ItemWriteBuffer createWriteBuffer(boolean enabled) {
+        ItemBatchProcessor batchProcessor = new ItemBatchProcessor();
+        ReflectionTestUtils.setField(batchProcessor, "itemRepository", itemRepository);
+
+        ItemWriteBuffer buffer = new ItemWriteBuffer(enabled, 100, 100, Duration.ofMinutes(1), 3, meterRegistry);
+        ReflectionTestUtils.setField(buffer, "batchProcessor", batchProcessor);
+        ReflectionTestUtils.setField(buffer, "itemCache", itemCache);
+        ReflectionTestUtils.setField(buffer, "changeFeed", changeFeed);
+        return buffer;
+    }
+
+    private void useWriteBehind() {
+        writeBuffer = createWriteBuffer(true);
+        ReflectionTestUtils.setField(itemService, "writeBuffer", writeBuffer);
     }
 
     @Test
@@ -45,6 +130,61 @@ class ItemServiceTest {
         assertEquals(1, items.size());
     }
 
+    @Test
+    void testForEachItem_VisitsEveryItemInOrder() {
+        EntityManager entityManager = mock(EntityManager.class);
+        ReflectionTestUtils.setField(itemService, "entityManager", entityManager);
+        Item first = new Item(1L, "One", "desc", "NEW", "a@b.com");
+        Item second = new Item(2L, "Two", "desc", "NEW", "b@c.com");
+        when(itemRepository.streamAll()).thenReturn(Stream.of(first, second));
+
+        List<Item> visited = new ArrayList<>();
+        itemService.forEachItem(visited::add);
+
+        assertEquals(List.of(first, second), visited);
+        verifyNoInteractions(entityManager); // The streamed items are not managed, there is nothing to detach
+    }
+
+    @Test
+    void testFindById_ServedFromCache() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "One", "desc", "NEW", "a@b.com")));
+
+        Optional<Item> first = itemService.findById(1L);
+        Optional<Item> second = itemService.findById(1L);
+
+        assertEquals("One", first.orElseThrow().getName());
+        assertEquals("One", second.orElseThrow().getName());
+        assertNotSame(first.get(), second.get()); // Every caller gets its own copy
+        verify(itemRepository, times(1)).findById(1L);
+        assertEquals(1, itemService.getCacheStats().getHitCount());
+        assertEquals(1, itemService.getCacheStats().getMissCount());
+    }
+
+    @Test
+    void testFindById_NotFoundIsNotCached() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertTrue(itemService.findById(1L).isEmpty());
+        assertTrue(itemService.findById(1L).isEmpty());
+
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testSaveAndDelete_UpdateCache() {
+        Item item = new Item(1L, "Updated", "desc", "NEW", "a@b.com", 2L); // As returned by a flushed save
+        when(itemRepository.save(item)).thenReturn(item);
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+
+        itemService.save(item);
+        assertEquals("Updated", itemService.findById(1L).orElseThrow().getName()); // Served from the cache
+
+        itemService.deleteById(1L);
+        assertTrue(itemService.findById(1L).isEmpty()); // Read from the database again
+        assertEquals(2, changeFeed.getNextOffset()); // Both writes were appended to the change feed
+    }
+
     @Test
     void testSave_Success() {
         Item item = new Item();
@@ -63,6 +203,125 @@ class ItemServiceTest {
         assertThrows(DataProcessingException.class, () -> itemService.save(item));
     }
 
+    @Test
+    void testUpdate_GuardedByVersion() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "Old", "desc", "NEW", "a@b.com", 3L)));
+
+        Item updated = itemService.update(1L, new Item(null, "New", "desc", "NEW", "a@b.com"), 3L);
+
+        assertEquals("New", updated.getName());
+        verify(itemRepository).flush();
+        verify(itemRepository, never()).existsById(anyLong()); // One read, one versioned UPDATE
+        assertEquals("New", itemService.findById(1L).orElseThrow().getName()); // Served from the cache
+    }
+
+    @Test
+    void testUpdate_StaleVersion() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "Old", "desc", "NEW", "a@b.com", 3L)));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> itemService.update(1L, new Item(null, "New", "desc", "NEW", "a@b.com"), 2L));
+    }
+
+    @Test
+    void testUpdate_RetriesAfterConcurrentModification() {
+        when(itemRepository.findById(1L)).thenReturn(
+                Optional.of(new Item(1L, "Old", "desc", "NEW", "a@b.com", 3L)),
+                Optional.of(new Item(1L, "Other", "desc", "NEW", "a@b.com", 4L)));
+        // The first commit loses the race against another writer
+        doThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L))
+                .doNothing()
+                .when(transactionManager).commit(any());
+
+        Item updated = itemService.update(1L, new Item(null, "New", "desc", "NEW", "a@b.com"), null);
+
+        assertEquals("New", updated.getName());
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void testUpdate_ConditionalIsNotRetried() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "Old", "desc", "NEW", "a@b.com", 3L)));
+        doThrow(new ObjectOptimisticLockingFailureException(Item.class, 1L)).when(transactionManager).commit(any());
+
+        assertThrows(PreconditionFailedException.class,
+                () -> itemService.update(1L, new Item(null, "New", "desc", "NEW", "a@b.com"), 3L));
+        verify(itemRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testUpdate_NotFound() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> itemService.update(1L, new Item(null, "New", "desc", "NEW", "a@b.com"), null));
+    }
+
+    @Test
+    void testUpdate_WriteBehindIsReadBackBeforeFlush() {
+        useWriteBehind();
+        Item current = new Item(1L, "Old", "desc", "NEW", "a@b.com", 3L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(current));
+
+        Item updated = itemService.update(1L, new Item(null, "First", "desc", "NEW", "a@b.com"), null);
+        itemService.update(1L, new Item(null, "Second", "desc", "NEW", "a@b.com"), null);
+
+        assertNull(updated.getVersion()); // Only known once flushed
+        verify(itemRepository, never()).flush();
+        assertEquals("Second", itemService.findById(1L).orElseThrow().getName());
+
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(current));
+        writeBuffer.flush();
+
+        assertEquals("Second", current.getName()); // Both updates written as one
+        verify(itemRepository, times(1)).flush();
+        assertEquals(1, changeFeed.getNextOffset());
+    }
+
+    @Test
+    void testUpdate_WriteBehindSkippedOnRequest() {
+        useWriteBehind();
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "Old", "desc", "NEW", "a@b.com", 3L)));
+
+        Item updated = itemService.update(1L, new Item(null, "Direct", "desc", "NEW", "a@b.com"), null, false);
+
+        assertNotNull(updated.getVersion()); // Written at once, so the client gets a version to send in If-Match
+        assertEquals(0, writeBuffer.size());
+        verify(itemRepository).flush();
+    }
+
+    @Test
+    void testUpdate_ConditionalFlushesWriteBehindFirst() {
+        useWriteBehind();
+        Item current = new Item(1L, "Old", "desc", "NEW", "a@b.com", 3L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(current));
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(current));
+        itemService.update(1L, new Item(null, "Buffered", "desc", "NEW", "a@b.com"), null);
+
+        Item updated = itemService.update(1L, new Item(null, "Conditional", "desc", "NEW", "a@b.com"), 3L);
+
+        assertEquals("Conditional", updated.getName());
+        assertEquals(0, writeBuffer.size());
+        verify(itemRepository, times(2)).flush(); // The buffered update, then the conditional one
+    }
+
+    @Test
+    void testSearch_NormalisesFiltersAndPages() {
+        when(itemRepository.search("NEW", "example.com", null, 0L, 3)).thenReturn(List.of(
+                new ItemSummary(1L, "One", "NEW", "a@example.com"),
+                new ItemSummary(2L, "Two", "NEW", "b@example.com"),
+                new ItemSummary(3L, "Three", "NEW", "c@example.com")));
+        when(itemRepository.search("NEW", "example.com", null, 2L, 3)).thenReturn(List.of(
+                new ItemSummary(3L, "Three", "NEW", "c@example.com")));
+
+        ItemSearchPage first = itemService.search("NEW", "@Example.COM", "", null, 2);
+        assertEquals(2, first.getItems().size());
+
+        ItemSearchPage second = itemService.search("NEW", "example.com", null, first.getNextCursor(), 2);
+        assertEquals(3L, second.getItems().get(0).getId());
+        assertNull(second.getNextCursor());
+    }
+
     @Test
     void testDeleteById_Success() {
         when(itemRepository.existsById(1L)).thenReturn(true);
@@ -76,19 +335,115 @@ class ItemServiceTest {
         when(itemRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> itemService.deleteById(1L));
+        assertEquals(1, meterRegistry.get(ItemMetrics.OPERATIONS)
+                .tags("operation", "deleteById", "outcome", "not_found").timer().count());
     }
 
     @Test
     void testProcessItemsAsync() throws Exception {
-        List<Long> ids = List.of(1L, 2L);
-        when(itemRepository.findAllIds()).thenReturn(ids);
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(new Item()));
-        when(itemRepository.save(any())).thenReturn(new Item());
+        Item first = new Item(1L, "One", "desc", "NEW", "a@b.com");
+        Item second = new Item(2L, "Two", "desc", "NEW", "b@c.com");
+        Item third = new Item(3L, "Three", "desc", "NEW", "c@d.com");
+        when(itemRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(itemRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(itemRepository.findIdsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(first, second));
+        when(itemRepository.findAllById(List.of(3L))).thenReturn(List.of(third));
 
-        CompletableFuture<List<Item>> result = itemService.processItemsAsync();
-        List<Item> processed = result.get(3, TimeUnit.SECONDS);
+        CompletableFuture<List<ItemStatus>> result = itemService.processItemsAsync();
+        List<ItemStatus> processed = result.get(3, TimeUnit.SECONDS);
 
-        assertEquals(2, processed.size());
+        assertEquals(3, processed.size());
+        assertTrue(processed.stream().allMatch(item -> "PROCESSED".equals(item.getStatus())));
+        assertEquals("PROCESSED", third.getStatus());
+        verify(itemRepository, never()).findById(anyLong()); // Items are loaded per chunk, never one by one
+        assertEquals(3, meterRegistry.get("items.processing.items").tag("outcome", "processed").counter().count());
+        assertEquals(2, meterRegistry.get("items.processing.stage").tag("stage", "load").timer().count());
     }
-}
 
+    @Test
+    void testProcessItemsAsync_FailedChunkIsSkipped() throws Exception {
+        Item second = new Item(2L, "Two", "desc", "NEW", "b@c.com");
+        when(itemRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(itemRepository.findIdsAfter(eq(1L), any(Pageable.class))).thenReturn(List.of(2L));
+        when(itemRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(itemRepository.findAllById(List.of(1L))).thenThrow(new DataAccessException("DB error") {});
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(second));
+
+        List<ItemStatus> processed = itemService.processItemsAsync().get(3, TimeUnit.SECONDS);
+
+        assertEquals(1, processed.size());
+        assertEquals(2L, processed.get(0).getId());
+    }
+
+    @Test
+    void testProcessItemsAsync_VirtualThreads() throws Exception {
+        ItemProcessingPipeline virtualPipeline = createPipeline(ItemProcessingProperties.ExecutorMode.VIRTUAL);
+        ReflectionTestUtils.setField(itemService, "processingPipeline", virtualPipeline);
+        Item first = new Item(1L, "One", "desc", "NEW", "a@b.com");
+        when(itemRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L));
+        when(itemRepository.findIdsAfter(eq(1L), any(Pageable.class))).thenReturn(List.of());
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(first));
+
+        try {
+            List<ItemStatus> processed = itemService.processItemsAsync().get(3, TimeUnit.SECONDS);
+
+            assertEquals(List.of(1L), processed.stream().map(ItemStatus::getId).toList());
+            assertEquals("PROCESSED", first.getStatus());
+        } finally {
+            virtualPipeline.shutdown();
+        }
+    }
+
+    @Test
+    void testProcessItemsAsync_PendingOnly() throws Exception {
+        Item pending = new Item(2L, "Two", "desc", "NEW", "b@c.com");
+        when(itemRepository.findPendingIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(2L));
+        when(itemRepository.findPendingIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(pending));
+
+        List<ItemStatus> processed = itemService.processItemsAsync(true).get(3, TimeUnit.SECONDS);
+
+        assertEquals(List.of(2L), processed.stream().map(ItemStatus::getId).toList());
+        verify(itemRepository, never()).findIdsAfter(anyLong(), any(Pageable.class)); // Processed items are never read
+    }
+
+    @Test
+    void testMarkAllProcessedAsync() throws Exception {
+        when(itemRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(itemRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of(3L));
+        when(itemRepository.findIdsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(itemRepository.updateStatusByIds(List.of(1L, 2L), "PROCESSED")).thenReturn(2);
+        when(itemRepository.updateStatusByIds(List.of(3L), "PROCESSED")).thenReturn(0); // Deleted in the meantime
+        when(itemRepository.findExistingIds(List.of(3L))).thenReturn(List.of());
+
+        List<Long> processed = itemService.markAllProcessedAsync().get(3, TimeUnit.SECONDS);
+
+        assertEquals(List.of(1L, 2L), processed);
+        verify(itemRepository, never()).findAllById(anyList()); // No entity is loaded on the fast path
+    }
+
+    @Test
+    void testFindPage_FollowsCursor() {
+        Item first = new Item(1L, "One", "desc", "NEW", "a@b.com");
+        Item second = new Item(2L, "Two", "desc", "NEW", "b@c.com");
+        Item third = new Item(3L, "Three", "desc", "NEW", "c@d.com");
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(3))).thenReturn(List.of(first, second, third));
+        when(itemRepository.findByIdGreaterThanOrderByIdAsc(2L, Limit.of(3))).thenReturn(List.of(third));
+
+        ItemPage firstPage = itemService.findPage(null, 2);
+        assertEquals(List.of(first, second), firstPage.getItems());
+        assertNotNull(firstPage.getNextCursor());
+
+        ItemPage lastPage = itemService.findPage(firstPage.getNextCursor(), 2);
+        assertEquals(List.of(third), lastPage.getItems());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void testFindPage_InvalidArguments() {
+        assertThrows(InvalidRequestException.class, () -> itemService.findPage("not a cursor!", 10));
+        assertThrows(InvalidRequestException.class, () -> itemService.findPage(null, 0));
+        assertThrows(InvalidRequestException.class, () -> itemService.findPage(null, ItemService.MAX_PAGE_SIZE + 1));
+    }
+}
@@ -0,0 +1,84 @@
+package com.siemens.internship;
+
+import com.jayway.jsonpath.JsonPath;
+import com.siemens.internship.model.Item;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ItemTextIndexTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemTextIndex textIndex;
+
+    @AfterEach
+    void cleanUp() {
+        itemRepository.deleteAllInBatch();
+        textIndex.rebuild(); // The batch delete bypasses the change feed
+    }
+
+    @Test
+    void testFollowsWrites() throws Exception {
+        String body = """
+                [{"name":"Desk lamp","description":"Warm white light","status":"NEW","email":"a@b.com"},
+                 {"name":"Warm lamp","description":"A lamp","status":"NEW","email":"a@b.com"},
+                 {"name":"Cable","description":"For a lamp","status":"NEW","email":"a@b.com"}]""";
+        String result = mockMvc.perform(post("/api/items/bulk").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andReturn().getResponse().getContentAsString();
+        List<Integer> ids = JsonPath.read(result, "$.ids");
+
+        mockMvc.perform(get("/api/items/search/text").param("q", "warm lamp"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].item.id").value(ids.get(1))) // Both words in the name
+                .andExpect(jsonPath("$[1].item.id").value(ids.get(0)));
+
+        mockMvc.perform(put("/api/items/" + ids.get(1)).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Floor light\",\"description\":\"Cold\",\"status\":\"NEW\",\"email\":\"a@b.com\"}"));
+        mockMvc.perform(delete("/api/items/" + ids.get(0)));
+
+        mockMvc.perform(get("/api/items/search/text").param("q", "lamp"))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].item.name").value("Cable"));
+    }
+
+    @Test
+    void testRebuildIndexesExistingRows() throws Exception {
+        itemRepository.save(new Item(null, "Stapler", "Staples paper", "NEW", "a@b.com")); // Not through the feed
+
+        mockMvc.perform(get("/api/items/search/text").param("q", "stapler"))
+                .andExpect(jsonPath("$.length()").value(0));
+
+        textIndex.rebuild();
+
+        mockMvc.perform(get("/api/items/search/text").param("q", "stapler"))
+                .andExpect(jsonPath("$[0].item.name").value("Stapler"))
+                .andExpect(jsonPath("$[0].score").isNumber());
+    }
+
+    @Test
+    void testBlankQuery() throws Exception {
+        mockMvc.perform(get("/api/items/search/text").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,196 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ItemWriteBufferTest {
+
+    @Mock
+    private ItemBatchProcessor batchProcessor;
+
+    private ItemCache itemCache;
+
+    private ItemChangeFeed changeFeed;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ItemWriteBuffer buffer;
+
+    @BeforeEach
+    void init() {
+        itemCache = new ItemCache(100, Duration.ofMinutes(1));
+        changeFeed = new ItemChangeFeed(100, Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        buffer = createBuffer(true, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        changeFeed.shutdown();
+    }
+
+    // Never started, so nothing is flushed unless the test asks for it
+    private ItemWriteBuffer createBuffer(boolean enabled, int maxPending) {
+        ItemWriteBuffer writeBuffer = new ItemWriteBuffer(enabled, 100, maxPending, Duration.ofMinutes(1), 3, meterRegistry);
+        ReflectionTestUtils.setField(writeBuffer, "batchProcessor", batchProcessor);
+        ReflectionTestUtils.setField(writeBuffer, "itemCache", itemCache);
+        ReflectionTestUtils.setField(writeBuffer, "changeFeed", changeFeed);
+        return writeBuffer;
+    }
+
+    private static Item item(Long id, String name) {
+        return new Item(id, name, "desc", "NEW", "a@b.com");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_WritesOnlyTheLatestValuePerItem() {
+        when(batchProcessor.updateChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertTrue(buffer.offer(item(1L, "First")));
+        assertTrue(buffer.offer(item(1L, "Second")));
+        assertTrue(buffer.offer(item(2L, "Other")));
+        assertEquals("Second", buffer.get(1L).getName());
+        assertEquals(2, buffer.size());
+
+        buffer.flush();
+
+        ArgumentCaptor<List<Item>> batch = ArgumentCaptor.forClass(List.class);
+        verify(batchProcessor, times(1)).updateChunk(batch.capture());
+        assertEquals(2, batch.getValue().size());
+        assertEquals("Second", batch.getValue().stream().filter(i -> i.getId() == 1L).findFirst().orElseThrow().getName());
+        assertEquals(0, buffer.size());
+        assertNull(buffer.get(1L));
+        assertEquals(2, changeFeed.getNextOffset());
+        assertEquals(2, meterRegistry.counter("items.write-behind.flushed").count());
+    }
+
+    @Test
+    void testFlush_KeepsValueBufferedWhileWriting() {
+        buffer.offer(item(1L, "First"));
+        when(batchProcessor.updateChunk(anyList())).thenAnswer(invocation -> {
+            buffer.offer(item(1L, "Second")); // A client updates the item while its previous value is written
+            return invocation.getArgument(0);
+        });
+
+        buffer.flush();
+
+        assertEquals("Second", buffer.get(1L).getName());
+    }
+
+    @Test
+    void testFlush_FailedItemStaysBuffered() {
+        when(batchProcessor.updateChunk(anyList())).thenAnswer(invocation -> {
+            List<Item> batch = invocation.getArgument(0);
+            if (batch.stream().anyMatch(i -> i.getId() == 2L)) {
+                throw new DataAccessException("Row locked") {};
+            }
+            return batch;
+        });
+        buffer.offer(item(1L, "One"));
+        buffer.offer(item(2L, "Two"));
+
+        buffer.flush();
+
+        assertNull(buffer.get(1L)); // Written one by one after the batch failed
+        assertEquals("Two", buffer.get(2L).getName());
+        assertEquals(1, meterRegistry.counter("items.write-behind.failures").count());
+    }
+
+    @Test
+    void testFlush_ValueFailingEveryTimeIsDroppedAfterMaxAttempts() {
+        when(batchProcessor.updateChunk(anyList())).thenThrow(new DataAccessException("Constraint violated") {});
+        buffer.offer(item(1L, "Rejected"));
+
+        buffer.flush();
+        buffer.flush();
+        assertEquals("Rejected", buffer.get(1L).getName()); // Still retried
+
+        buffer.flush(); // Third failure, max-attempts is 3
+
+        assertNull(buffer.get(1L)); // Reads go to the database again
+        assertEquals(0, buffer.size());
+        assertEquals(3, meterRegistry.counter("items.write-behind.failures").count());
+        assertEquals(1, meterRegistry.counter("items.write-behind.dropped").count());
+    }
+
+    @Test
+    void testFlush_NewValueGetsItsOwnAttempts() {
+        when(batchProcessor.updateChunk(anyList())).thenThrow(new DataAccessException("Row locked") {});
+        buffer.offer(item(1L, "First"));
+        buffer.flush();
+        buffer.flush();
+
+        buffer.offer(item(1L, "Second"));
+        buffer.flush();
+
+        assertEquals("Second", buffer.get(1L).getName());
+    }
+
+    @Test
+    void testFlushIds_OnlyWritesThoseItems() {
+        when(batchProcessor.updateChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        buffer.offer(item(1L, "One"));
+        buffer.offer(item(2L, "Two"));
+
+        buffer.flush(List.of(2L, 3L));
+
+        verify(batchProcessor).updateChunk(argThat(batch -> batch.size() == 1 && batch.get(0).getId() == 2L));
+        assertNotNull(buffer.get(1L));
+        assertNull(buffer.get(2L));
+    }
+
+    @Test
+    void testOffer_RefusedWhenFullUnlessAlreadyBuffered() {
+        ItemWriteBuffer small = createBuffer(true, 1);
+
+        assertTrue(small.offer(item(1L, "One")));
+        assertFalse(small.offer(item(2L, "Two")));
+        assertTrue(small.offer(item(1L, "Again"))); // Replaces the pending value, the buffer does not grow
+    }
+
+    @Test
+    void testOffer_RefusedWhenDisabled() {
+        assertFalse(createBuffer(false, 10).offer(item(1L, "One")));
+    }
+
+    @Test
+    void testDiscard() {
+        buffer.offer(item(1L, "One"));
+
+        buffer.discard(List.of(1L));
+
+        assertNull(buffer.get(1L));
+        buffer.flush();
+        verifyNoInteractions(batchProcessor);
+    }
+
+    @Test
+    void testShutdown_FlushesAndRefusesNewUpdates() {
+        when(batchProcessor.updateChunk(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        buffer.offer(item(1L, "One"));
+
+        buffer.shutdown();
+
+        verify(batchProcessor).updateChunk(anyList());
+        assertEquals(0, buffer.size());
+        assertFalse(buffer.offer(item(1L, "Late")));
+    }
+}
@@ -0,0 +1,63 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// One write and one bulk request per ~17 minutes, so the second one of each test is always over the limit
+@SpringBootTest(properties = {
+        "item.load-protection.rate-limits.write.permits-per-second=0.001",
+        "item.load-protection.rate-limits.write.burst=1",
+        "item.load-protection.rate-limits.bulk.permits-per-second=0.001",
+        "item.load-protection.rate-limits.bulk.burst=1"})
+@AutoConfigureMockMvc
+class LoadProtectionControllerTest {
+
+    @TempDir
+    static Path exportDirectory;
+
+    @DynamicPropertySource
+    static void exportProperties(DynamicPropertyRegistry registry) {
+        registry.add("item.export.directory", () -> exportDirectory.toString());
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testWritesOverTheRateLimitGet429AndReadsAreNotLimited() throws Exception {
+        mockMvc.perform(delete("/api/items/999999")).andExpect(status().isNotFound());
+
+        mockMvc.perform(delete("/api/items/999999"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(jsonPath("$.status").value(429));
+
+        mockMvc.perform(get("/api/items/999999")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/items/999999")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testExportsOverTheBulkLimitGet429AndDownloadsAreNotLimited() throws Exception {
+        mockMvc.perform(post("/api/items/export")).andExpect(status().isCreated());
+
+        mockMvc.perform(post("/api/items/export"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"));
+
+        mockMvc.perform(get("/api/items/export")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/items/export/file")).andExpect(status().isOk());
+    }
+}
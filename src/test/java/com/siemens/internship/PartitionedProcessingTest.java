@@ -0,0 +1,214 @@
+package com.siemens.internship;
+
+import com.siemens.internship.exception.ConflictException;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingJob;
+import com.siemens.internship.model.ProcessingJobProgress;
+import com.siemens.internship.model.ProcessingPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Two application nodes sharing one H2 file database, as several instances would share one database server
+class PartitionedProcessingTest {
+
+    private static final int ITEM_COUNT = 100;
+
+    // One partition run in 20 chunks of 5 items, at most 2 in flight at 250 ms each, with a lease renewed every 100 ms
+    private static final String[] SLOW_RUN_PROPERTIES = {
+            "item.processing.simulated-work-ms=50",
+            "item.processing.adaptive.enabled=false",
+            "item.processing.adaptive.initial-limit=2",
+            "item.processing.jobs.lease=300ms",
+            "item.processing.partitions.lease=300ms",
+            "item.processing.partitions.size=" + ITEM_COUNT};
+
+    @TempDir
+    Path databaseDirectory;
+
+    private final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    @Test
+    void testNodesShareThePartitionsOfAJob() throws Exception {
+        String url = "jdbc:h2:file:" + databaseDirectory.resolve("items") + ";AUTO_SERVER=TRUE";
+        ConfigurableApplicationContext nodeA = startNode(url, "node-a");
+        startNode(url, "node-b");
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Item(null, "Item " + i, "desc", "NEW", "item" + i + "@test.com"));
+        }
+        ItemRepository itemRepository = nodeA.getBean(ItemRepository.class);
+        itemRepository.saveAll(items);
+
+        ProcessingJobService jobService = nodeA.getBean(ProcessingJobService.class);
+        ProcessingJobProgress started = jobService.startPartitioned(false);
+        Long jobId = started.getId();
+
+        ProcessingJobProgress progress = awaitCompletion(jobService, jobId);
+        assertEquals(ITEM_COUNT, progress.getProcessedCount());
+        assertEquals(0, progress.getFailedCount());
+        assertTrue(itemRepository.findAll().stream().allMatch(item -> "PROCESSED".equals(item.getStatus())));
+
+        // Every range was completed exactly once, by one of the two nodes
+        List<ProcessingPartition> partitions = jobService.getPartitions(jobId);
+        assertEquals(ITEM_COUNT / 10, partitions.size());
+        assertTrue(partitions.stream().allMatch(partition -> partition.getStatus() == ProcessingPartition.Status.DONE));
+        assertEquals(ITEM_COUNT, partitions.stream().mapToLong(ProcessingPartition::getProcessedCount).sum());
+        assertEquals(Set.of("node-a", "node-b"),
+                partitions.stream().map(ProcessingPartition::getOwner).collect(Collectors.toSet())); // Both took part
+    }
+
+    @Test
+    void testPartitionedJobCannotBeResumedManually() {
+        String url = "jdbc:h2:file:" + databaseDirectory.resolve("items") + ";AUTO_SERVER=TRUE";
+        // Without a worker, nothing claims the partitions and the job stays RUNNING
+        ConfigurableApplicationContext node = startNode(url, "node-a", "item.processing.partitions.worker-enabled=false");
+        node.getBean(ItemRepository.class).save(new Item(null, "One", "desc", "NEW", "a@b.com"));
+        ProcessingJobService jobService = node.getBean(ProcessingJobService.class);
+
+        ProcessingJobProgress started = jobService.startPartitioned(false);
+
+        assertEquals(ProcessingJob.Status.RUNNING, started.getStatus());
+        assertThrows(ConflictException.class, () -> jobService.resume(started.getId()));
+    }
+
+    @Test
+    void testNodeStopsAPartitionWhoseLeaseWasTakenOver() throws Exception {
+        String url = "jdbc:h2:file:" + databaseDirectory.resolve("items") + ";AUTO_SERVER=TRUE";
+        ConfigurableApplicationContext node = startNode(url, "node-a", SLOW_RUN_PROPERTIES);
+        ItemRepository itemRepository = saveItems(node);
+        ProcessingPartitionRepository partitionRepository = node.getBean(ProcessingPartitionRepository.class);
+        ProcessingJobService jobService = node.getBean(ProcessingJobService.class);
+        Long jobId = jobService.startPartitioned(false).getId();
+
+        ProcessingPartition partition = awaitUntil(() -> jobService.getPartitions(jobId).stream()
+                .filter(candidate -> candidate.getStatus() == ProcessingPartition.Status.CLAIMED)
+                .findFirst().orElse(null));
+        // Taken over by a node that saw the lease expire
+        partition.setOwner("node-b");
+        partition.setLeaseUntil(Instant.now().plus(Duration.ofMinutes(5)));
+        partitionRepository.save(partition);
+        Thread.sleep(2_000); // Longer than the whole run would take
+
+        ProcessingPartition taken = partitionRepository.findById(partition.getId()).orElseThrow();
+        assertEquals(ProcessingPartition.Status.CLAIMED, taken.getStatus());
+        assertEquals("node-b", taken.getOwner());
+        assertEquals(0, taken.getProcessedCount());
+        assertEquals(ProcessingJob.Status.RUNNING, jobService.getProgress(jobId).getStatus());
+        assertTrue(countProcessed(itemRepository) < ITEM_COUNT); // No further chunk was started
+    }
+
+    @Test
+    void testNodeStopsAJobWhoseLeaseWasTakenOver() throws Exception {
+        String url = "jdbc:h2:file:" + databaseDirectory.resolve("items") + ";AUTO_SERVER=TRUE";
+        ConfigurableApplicationContext node = startNode(url, "node-a", SLOW_RUN_PROPERTIES);
+        ItemRepository itemRepository = saveItems(node);
+        ProcessingJobRepository jobRepository = node.getBean(ProcessingJobRepository.class);
+        Long jobId = node.getBean(ProcessingJobService.class).start(false).getId();
+
+        ProcessingJob job = awaitUntil(() -> jobRepository.findById(jobId)
+                .filter(candidate -> candidate.getLastProcessedId() > 0).orElse(null));
+        job.setOwner("node-b");
+        job.setLeaseUntil(Instant.now().plus(Duration.ofMinutes(5)));
+        jobRepository.save(job);
+        Thread.sleep(2_000);
+
+        ProcessingJob taken = jobRepository.findById(jobId).orElseThrow();
+        assertEquals(ProcessingJob.Status.RUNNING, taken.getStatus());
+        assertEquals("node-b", taken.getOwner());
+        assertEquals(job.getProcessedCount(), taken.getProcessedCount()); // Nothing recorded after the takeover
+        assertEquals(job.getLastProcessedId(), taken.getLastProcessedId());
+        assertTrue(countProcessed(itemRepository) < ITEM_COUNT);
+    }
+
+    private static ItemRepository saveItems(ConfigurableApplicationContext node) {
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            items.add(new Item(null, "Item " + i, "desc", "NEW", "item" + i + "@test.com"));
+        }
+        ItemRepository itemRepository = node.getBean(ItemRepository.class);
+        itemRepository.saveAll(items);
+        return itemRepository;
+    }
+
+    private static long countProcessed(ItemRepository itemRepository) {
+        return itemRepository.findAll().stream().filter(item -> "PROCESSED".equals(item.getStatus())).count();
+    }
+
+    private static <T> T awaitUntil(Supplier<T> condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            T value = condition.get();
+            if (value != null) {
+                return value;
+            }
+            Thread.sleep(10);
+        }
+        return fail("Condition not met in time");
+    }
+
+    // Passed as command line arguments: properties set on the builder are only defaults, which
+    // application.properties would override. A repeated argument would be read as a list, so extra properties
+    // replace the defaults here
+    private ConfigurableApplicationContext startNode(String url, String nodeId, String... extraProperties) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("spring.datasource.url", url);
+        // Every node has its own local caches, keep them out of a test running both nodes in one JVM
+        properties.put("spring.jpa.properties.hibernate.cache.use_second_level_cache", "false");
+        properties.put("spring.jpa.properties.hibernate.cache.use_query_cache", "false");
+        properties.put("item.processing.simulated-work-ms", "5"); // Long enough for both nodes to claim partitions
+        properties.put("item.processing.chunk-size", "5");
+        properties.put("item.processing.jobs.resume-on-startup", "false");
+        properties.put("item.processing.partitions.node-id", nodeId);
+        properties.put("item.processing.partitions.size", "10");
+        properties.put("item.processing.partitions.max-claimed", "1");
+        properties.put("item.processing.partitions.poll-interval", "50ms");
+        for (String property : extraProperties) {
+            String[] keyAndValue = property.split("=", 2);
+            properties.put(keyAndValue[0], keyAndValue[1]);
+        }
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext node = new SpringApplicationBuilder(InternshipApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+        nodes.add(node);
+        return node;
+    }
+
+    private static ProcessingJobProgress awaitCompletion(ProcessingJobService jobService, Long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (System.currentTimeMillis() < deadline) {
+            ProcessingJobProgress progress = jobService.getProgress(jobId);
+            if (progress.getStatus() != ProcessingJob.Status.RUNNING) {
+                return progress;
+            }
+            Thread.sleep(50);
+        }
+        return fail("Partitioned job " + jobId + " did not finish in time");
+    }
+}
@@ -0,0 +1,121 @@
+package com.siemens.internship;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineStageTest {
+
+    // One task running and one waiting at most
+    private final PipelineStage stage = new PipelineStage("test",
+            new ItemProcessingProperties.Stage(1, 1), ItemProcessingProperties.ExecutorMode.FIXED);
+
+    @AfterEach
+    void tearDown() {
+        stage.shutdown();
+    }
+
+    @Test
+    void testSubmitBlocksWhileStageIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> running = stage.submit(() -> {
+            awaitQuietly(release);
+            return 1;
+        });
+        CompletableFuture<Integer> queued = stage.submit(() -> 2);
+        CompletableFuture<CompletableFuture<Integer>> blocked = CompletableFuture.supplyAsync(() -> stage.submit(() -> 3));
+
+        // The third task does not fit, so its submit() waits until the stage drains
+        assertThrows(TimeoutException.class, () -> blocked.get(200, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertEquals(1, running.get(3, TimeUnit.SECONDS));
+        assertEquals(2, queued.get(3, TimeUnit.SECONDS));
+        assertEquals(3, blocked.get(3, TimeUnit.SECONDS).get(3, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testFailedTaskFreesItsSlot() throws Exception {
+        CompletableFuture<Integer> failed = stage.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> failed.get(3, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+        assertEquals(2, stage.submit(() -> 2).get(3, TimeUnit.SECONDS));
+        assertEquals(3, stage.submit(() -> 3).get(3, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testForEachRunsItemsInParallelOverThePool() throws Exception {
+        PipelineStage wide = new PipelineStage("wide",
+                new ItemProcessingProperties.Stage(4, 0), ItemProcessingProperties.ExecutorMode.FIXED);
+        try {
+            assertEquals(8, wide.submit(() -> forEachConcurrently(wide, 8, 4)).get(5, TimeUnit.SECONDS));
+        } finally {
+            wide.shutdown();
+        }
+    }
+
+    @Test
+    void testForEachWithVirtualThreadsIsNotBoundedByConcurrency() throws Exception {
+        PipelineStage virtual = new PipelineStage("virtual",
+                new ItemProcessingProperties.Stage(1, 0), ItemProcessingProperties.ExecutorMode.VIRTUAL);
+        try {
+            assertEquals(50, virtual.submit(() -> forEachConcurrently(virtual, 50, 50)).get(5, TimeUnit.SECONDS));
+        } finally {
+            virtual.shutdown();
+        }
+    }
+
+    @Test
+    void testForEachRethrowsFirstFailure() throws Exception {
+        CompletableFuture<Integer> failed = stage.submit(() -> {
+            stage.forEach(List.of(1, 2, 3), item -> {
+                if (item == 2) {
+                    throw new IllegalStateException("boom");
+                }
+            });
+            return 0;
+        });
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> failed.get(3, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+    }
+
+    // Every item waits until `parallel` items run at the same time, which only happens if they are spread over threads
+    private static int forEachConcurrently(PipelineStage stage, int items, int parallel) {
+        CountDownLatch together = new CountDownLatch(parallel);
+        AtomicInteger done = new AtomicInteger();
+        stage.forEach(IntStream.range(0, items).boxed().toList(), item -> {
+            together.countDown();
+            try {
+                if (!together.await(3, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("Items did not run in parallel");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            done.incrementAndGet();
+        });
+        return done.get();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.siemens.internship;
+
+import com.jayway.jsonpath.JsonPath;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingJob;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "item.processing.simulated-work-ms=0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability // Metrics export is off in tests by default, needed for the Prometheus endpoint
+class ProcessingJobControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ProcessingJobRepository jobRepository;
+
+    @Autowired
+    private ProcessingFailureRepository failureRepository;
+
+    @Autowired
+    private ProcessingJobService jobService;
+
+    @Autowired
+    private PartitionedProcessingService partitionedProcessing;
+
+    @AfterEach
+    void cleanUp() {
+        failureRepository.deleteAllInBatch();
+        jobRepository.deleteAllInBatch();
+        itemRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void testJobProcessesEveryItem() throws Exception {
+        itemRepository.saveAll(List.of(
+                new Item(null, "One", "desc", "NEW", "a@b.com"),
+                new Item(null, "Two", "desc", "NEW", "b@c.com"),
+                new Item(null, "Three", "desc", "NEW", "c@d.com")));
+
+        String body = mockMvc.perform(post("/api/items/process/jobs"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.status").value("RUNNING"))
+                .andExpect(jsonPath("$.totalCount").value(3))
+                .andReturn().getResponse().getContentAsString();
+        long jobId = ((Number) JsonPath.read(body, "$.id")).longValue();
+
+        awaitCompletion(jobId);
+
+        mockMvc.perform(get("/api/items/process/jobs/{id}", jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.processedCount").value(3))
+                .andExpect(jsonPath("$.failedCount").value(0))
+                .andExpect(jsonPath("$.etaSeconds").value(0));
+        mockMvc.perform(get("/api/items/process/jobs/{id}/failures", jobId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        assertTrue(itemRepository.findAll().stream().allMatch(item -> "PROCESSED".equals(item.getStatus())));
+    }
+
+    @Test
+    void testPendingOnlyJobSkipsProcessedItems() throws Exception {
+        itemRepository.saveAll(List.of(
+                new Item(null, "One", "desc", "PROCESSED", "a@b.com"),
+                new Item(null, "Two", "desc", "NEW", "b@c.com")));
+
+        String body = mockMvc.perform(post("/api/items/process/jobs").param("pendingOnly", "true"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.totalCount").value(1))
+                .andReturn().getResponse().getContentAsString();
+        long jobId = ((Number) JsonPath.read(body, "$.id")).longValue();
+
+        awaitCompletion(jobId);
+
+        mockMvc.perform(get("/api/items/process/jobs/{id}", jobId))
+                .andExpect(jsonPath("$.status").value("COMPLETED"))
+                .andExpect(jsonPath("$.processedCount").value(1));
+    }
+
+    @Test
+    void testResumeCompletedJob_Conflict() throws Exception {
+        String body = mockMvc.perform(post("/api/items/process/jobs"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        long jobId = ((Number) JsonPath.read(body, "$.id")).longValue();
+        awaitCompletion(jobId);
+
+        mockMvc.perform(post("/api/items/process/jobs/{id}/resume", jobId))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testProcessingMetricsArePublished() throws Exception {
+        itemRepository.save(new Item(null, "One", "desc", "NEW", "a@b.com"));
+        String body = mockMvc.perform(post("/api/items/process/jobs"))
+                .andExpect(status().isAccepted())
+                .andReturn().getResponse().getContentAsString();
+        awaitCompletion(((Number) JsonPath.read(body, "$.id")).longValue());
+
+        String metrics = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(metrics.contains("items_processing_items_total{outcome=\"processed\""));
+        assertTrue(metrics.contains("items_processing_stage_active{stage=\"transform\""));
+        assertTrue(metrics.contains("hikaricp_connections_active"));
+    }
+
+    @Test
+    void testJobOfAnotherNodeIsOnlyResumedOnceItsLeaseExpired() throws Exception {
+        itemRepository.save(new Item(null, "One", "desc", "NEW", "a@b.com"));
+        ProcessingJob job = new ProcessingJob();
+        job.setStatus(ProcessingJob.Status.RUNNING);
+        job.setTotalCount(1);
+        job.setLastProcessedId(0L);
+        job.setStartedAt(Instant.now());
+        job.setOwner("other-node");
+        job.setLeaseUntil(Instant.now().plus(Duration.ofMinutes(5)));
+        long jobId = jobRepository.save(job).getId();
+
+        jobService.resumeInterruptedJobs();
+        mockMvc.perform(post("/api/items/process/jobs/{id}/resume", jobId))
+                .andExpect(status().isConflict());
+        assertEquals("other-node", jobRepository.findById(jobId).orElseThrow().getOwner());
+
+        job = jobRepository.findById(jobId).orElseThrow();
+        job.setLeaseUntil(Instant.now().minusSeconds(1)); // The other node died
+        jobRepository.save(job);
+        jobService.resumeInterruptedJobs();
+        awaitCompletion(jobId);
+
+        ProcessingJob resumed = jobRepository.findById(jobId).orElseThrow();
+        assertEquals(ProcessingJob.Status.COMPLETED, resumed.getStatus());
+        assertEquals(partitionedProcessing.getNodeId(), resumed.getOwner());
+        assertEquals(1, resumed.getProcessedCount());
+    }
+
+    @Test
+    void testGetJob_NotFound() throws Exception {
+        mockMvc.perform(get("/api/items/process/jobs/{id}", 999_999L))
+                .andExpect(status().isNotFound());
+    }
+
+    private void awaitCompletion(long jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (jobRepository.findById(jobId).map(ProcessingJob::getStatus).orElseThrow() != ProcessingJob.Status.RUNNING) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Processing job " + jobId + " did not finish in time");
+    }
+}